@@ -0,0 +1,52 @@
+import bench.EngineFixture;
+
+import java.util.SplittableRandom;
+
+// EngineBenchmark用の盤面（ゲーム本体と同じ無名パッケージに置く）
+public class EngineFixtureImpl implements EngineFixture {
+    private GameEngine engine;
+    private int fillMask;
+
+    @Override
+    public void setUp(int cols, int rows, long seed) {
+        engine = new GameEngine(cols, rows);
+        engine.reset(new PieceGenerator(seed, PieceGenerator.Mode.BAG7, 5));
+        fillMask = (1 << cols) - 1; // 31列まで
+
+        // 同じシードなら毎回同じ積み方になるように、ランダムな操作で積む
+        SplittableRandom random = new SplittableRandom(seed);
+        while (engine.getPiecesPlaced() < rows / 2 && !engine.isGameOver()) {
+            engine.step(1 << random.nextInt(5));
+        }
+    }
+
+    @Override
+    public boolean canMove(int dx, int dy) {
+        return engine.canMove(engine.getCurrentX() + dx, engine.getCurrentY() + dy);
+    }
+
+    @Override
+    public boolean rotate(boolean clockwise) {
+        return engine.rotate(clockwise);
+    }
+
+    @Override
+    public void fixMino() {
+        engine.fixMino();
+    }
+
+    @Override
+    public int checkLines(int lines) {
+        BitBoard board = engine.getBoard();
+        int[] row = {fillMask};
+        for (int i = 0; i < lines; i++) {
+            board.place(row, 1, 0, board.getRows() - 1 - i);
+        }
+        return engine.checkLines(board.getRows() - lines, board.getRows() - 1);
+    }
+
+    @Override
+    public void spawnMino() {
+        engine.spawnMino();
+    }
+}
@@ -0,0 +1,52 @@
+import bench.RenderFixture;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+// RenderBenchmark用のGamePanel（ゲーム本体と同じ無名パッケージに置く）
+public class RenderFixtureImpl implements RenderFixture {
+    private GamePanel panel;
+    private GameEngine engine;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Override
+    public void setUp(int width, int height, long seed) {
+        // 作業フォルダの設定ファイルやスコアに左右されず、何も書き出さないように既定の設定で作る
+        CardLayout cardLayout = new CardLayout();
+        panel = new GamePanel(cardLayout, new JPanel(cardLayout),
+                GameSettings.fixed(SettingsSnapshot.DEFAULTS), null);
+        panel.setSize(width, height);
+        panel.resetGame();
+        engine = panel.getEngine();
+
+        // 同じシードなら毎回同じ盤面になるように積む
+        engine.reset(new PieceGenerator(seed, PieceGenerator.Mode.BAG7, 5));
+        SplittableRandom random = new SplittableRandom(seed);
+        while (engine.getPiecesPlaced() < engine.getRows() / 2 && !engine.isGameOver()) {
+            engine.step(1 << random.nextInt(5));
+        }
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        panel.paintComponent(graphics);
+    }
+
+    @Override
+    public void paint() {
+        panel.paintComponent(graphics);
+    }
+
+    @Override
+    public void paintAfterLock() {
+        engine.fixMino();
+        panel.paintComponent(graphics);
+    }
+
+    @Override
+    public void tearDown() {
+        graphics.dispose();
+    }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+    @Param({"20", "100"})
+    private int rows;
+
+    private EngineFixture fixture;
+    private boolean clockwise;
+
+    // 消す行数はcheckLinesだけのパラメータ
+    @State(Scope.Thread)
+    public static class LineClear {
+        @Param({"0", "1", "2", "3", "4"})
+        int lines;
+    }
+
+    @Setup
+    public void setUp() {
+        fixture = Fixtures.load("EngineFixtureImpl", EngineFixture.class);
+        fixture.setUp(10, rows, 12345L);
+    }
+
+    @Benchmark
+    public boolean canMove() {
+        return fixture.canMove(0, 1);
+    }
+
+    @Benchmark
+    public boolean rotate() {
+        clockwise = !clockwise;
+        return fixture.rotate(clockwise);
+    }
+
+    @Benchmark
+    public void fixMino() {
+        fixture.fixMino();
+    }
+
+    @Benchmark
+    public int checkLines(LineClear clear) {
+        return fixture.checkLines(clear.lines);
+    }
+
+    @Benchmark
+    public void spawnMino() {
+        fixture.spawnMino();
+    }
+}
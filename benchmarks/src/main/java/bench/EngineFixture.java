@@ -0,0 +1,19 @@
+package bench;
+
+// ゲーム本体は無名パッケージにあり名前付きパッケージからimportできないため、
+// 無名パッケージ側の実装（EngineFixtureImpl）をこのインターフェース経由で呼ぶ
+public interface EngineFixture {
+    // シード固定で盤面を作る
+    void setUp(int cols, int rows, long seed);
+
+    boolean canMove(int dx, int dy);
+
+    boolean rotate(boolean clockwise);
+
+    void fixMino();
+
+    // 下からlines行を埋めてから消す（lines=0は埋めずに判定だけ）
+    int checkLines(int lines);
+
+    void spawnMino();
+}
@@ -0,0 +1,15 @@
+package bench;
+
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    // 無名パッケージの実装クラスを名前で読み込む
+    static <T> T load(String className, Class<T> type) {
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(className + " を読み込めません", e);
+        }
+    }
+}
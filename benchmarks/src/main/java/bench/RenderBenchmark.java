@@ -0,0 +1,51 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+    @Param({"1920x1080", "3840x2160"})
+    private String resolution;
+
+    private RenderFixture fixture;
+
+    @Setup
+    public void setUp() {
+        String[] size = resolution.split("x");
+        fixture = Fixtures.load("RenderFixtureImpl", RenderFixture.class);
+        fixture.setUp(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 12345L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    public void paintComponent() {
+        fixture.paint();
+    }
+
+    @Benchmark
+    public void paintComponentAfterLock() {
+        fixture.paintAfterLock();
+    }
+}
@@ -0,0 +1,14 @@
+package bench;
+
+// GamePanelをオフスクリーン画像に描くための窓口（実装は無名パッケージのRenderFixtureImpl）
+public interface RenderFixture {
+    void setUp(int width, int height, long seed);
+
+    // 盤面が変わらないフレーム（キャッシュ画像の転送とミノだけ）
+    void paint();
+
+    // ミノを固定して盤面が変わったフレーム（キャッシュ画像を作り直す）
+    void paintAfterLock();
+
+    void tearDown();
+}
@@ -0,0 +1,383 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+public class BitBoard {
+    // --- 盤面サイズ ---
+    private final int cols;
+    private final int rows;
+    private final int words; // 1行あたりのlong数（64列ごとに1つ）
+
+    // --- 盤面データ（物理行CHUNK_ROWS行ごとのチャンク。ブロックの無いチャンクは確保しない） ---
+    private static final int CHUNK_BITS = 5;
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS;
+    private final long[][] occupancy; // [チャンク][行内の位置*words + w] = 占有ビット（空ならnull）
+    private final byte[][] colors;    // [チャンク][行内の位置*cols + x] = 色（0は空、空ならnull）
+    private final int[] chunkUsedRows; // チャンク内でブロックのある物理行の数
+    private final boolean[] slotUsed;  // 物理行にブロックがあるか
+    private final ArrayDeque<long[]> spareOccupancy = new ArrayDeque<>(); // 解放したチャンクの再利用
+    private final ArrayDeque<byte[]> spareColors = new ArrayDeque<>();
+    private final long[] fullMask;  // 1行が埋まった状態のマスク
+    private final int[] rowSlots;   // 論理行 → 物理行の対応表（行消去でデータを動かさないため）
+    private final int[] freeSlots;  // 行消去時の作業用
+    private final int[] heights;    // 列ごとの高さ（床から一番上のブロックまで、空なら0）
+
+    public BitBoard(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.words = (cols + 63) >>> 6;
+        int chunks = (rows + CHUNK_ROWS - 1) >>> CHUNK_BITS;
+        this.occupancy = new long[chunks][];
+        this.colors = new byte[chunks][];
+        this.chunkUsedRows = new int[chunks];
+        this.slotUsed = new boolean[rows];
+        this.fullMask = new long[words];
+        this.rowSlots = new int[rows];
+        this.freeSlots = new int[rows];
+        this.heights = new int[cols];
+        for (int y = 0; y < rows; y++) {
+            rowSlots[y] = y;
+        }
+
+        // 満杯マスクを事前計算
+        for (int w = 0; w < words; w++) {
+            int bits = Math.min(64, cols - w * 64);
+            fullMask[w] = bits == 64 ? -1L : (1L << bits) - 1;
+        }
+    }
+
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+
+    public int getWords() { return words; }
+
+    // 指定マスの色を取得（0は空）
+    public int get(int x, int y) {
+        int slot = rowSlots[y];
+        byte[] chunk = colors[slot >>> CHUNK_BITS];
+        return chunk == null ? 0 : chunk[(slot & (CHUNK_ROWS - 1)) * cols + x];
+    }
+
+    // 指定マスが埋まっているか
+    public boolean isOccupied(int x, int y) {
+        return (getRowWord(y, x >>> 6) & (1L << (x & 63))) != 0;
+    }
+
+    // 行yの占有ビット（w番目のlong、列w*64から64列分）
+    public long getRowWord(int y, int w) {
+        int slot = rowSlots[y];
+        long[] chunk = occupancy[slot >>> CHUNK_BITS];
+        return chunk == null ? 0L : chunk[(slot & (CHUNK_ROWS - 1)) * words + w];
+    }
+
+    // 行yにブロックが1つも無いか（描画で空の行を飛ばす用）
+    public boolean isRowEmpty(int y) {
+        return !slotUsed[rowSlots[y]];
+    }
+
+    // 一番上のブロックがある行（空なら行数）
+    public int getTopRow() {
+        int max = 0;
+        for (int x = 0; x < cols; x++) {
+            max = Math.max(max, heights[x]);
+        }
+        return rows - max;
+    }
+
+    // 盤面の内容のハッシュ（リプレイの再現確認用、FNV-1a）
+    public long contentHash() {
+        long hash = 0xcbf29ce484222325L;
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                hash = (hash ^ get(x, y)) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    // 盤面を空にする
+    public void clear() {
+        for (int c = 0; c < occupancy.length; c++) {
+            if (occupancy[c] != null) {
+                releaseChunk(c);
+            }
+        }
+        Arrays.fill(slotUsed, false);
+        Arrays.fill(heights, 0);
+        for (int y = 0; y < rows; y++) {
+            rowSlots[y] = y;
+        }
+    }
+
+    // 列の高さ（床から一番上のブロックまで、空なら0）
+    public int getColumnHeight(int x) {
+        return heights[x];
+    }
+
+    // ミノ（行ごとのビットマスク）が位置(x, y)で衝突するか判定
+    public boolean collides(int[] rowMasks, int x, int y) {
+        for (int r = 0; r < rowMasks.length; r++) {
+            int mask = rowMasks[r];
+            if (mask == 0) {
+                continue;
+            }
+            // 左右の壁
+            if (x + Integer.numberOfTrailingZeros(mask) < 0) {
+                return true;
+            }
+            if (x + 32 - Integer.numberOfLeadingZeros(mask) > cols) {
+                return true;
+            }
+            int by = y + r;
+            // 床
+            if (by >= rows) {
+                return true;
+            }
+            // 盤面より上ははみ出しても良い
+            if (by >= 0 && overlaps(by, mask, x)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ミノをそのまま落とした時の着地位置（列の高さとミノの底の形から求めるので、ミノの幅分だけ見ればよい）
+    public int dropY(int[] rowMasks, int[] bottoms, int x, int y) {
+        int landing = Integer.MAX_VALUE;
+        for (int c = 0; c < bottoms.length; c++) {
+            if (bottoms[c] >= 0) {
+                landing = Math.min(landing, rows - heights[x + c] - 1 - bottoms[c]);
+            }
+        }
+        if (landing < y) {
+            // 張り出しの下に潜り込んでいる時だけ1マスずつ調べる
+            landing = y;
+            while (!collides(rowMasks, x, landing + 1)) {
+                landing++;
+            }
+        }
+        return landing;
+    }
+
+    // 同じサイズの盤面の内容を丸ごと写す（探索用の作業盤面に使う。確保済みのチャンクは使い回す）
+    public void copyFrom(BitBoard src) {
+        if (src.cols != cols || src.rows != rows) {
+            throw new IllegalArgumentException("盤面のサイズが違います");
+        }
+        for (int c = 0; c < occupancy.length; c++) {
+            if (src.occupancy[c] == null) {
+                if (occupancy[c] != null) {
+                    releaseChunk(c);
+                }
+                continue;
+            }
+            if (occupancy[c] == null) {
+                allocateChunk(c);
+            }
+            System.arraycopy(src.occupancy[c], 0, occupancy[c], 0, occupancy[c].length);
+            System.arraycopy(src.colors[c], 0, colors[c], 0, colors[c].length);
+            chunkUsedRows[c] = src.chunkUsedRows[c];
+        }
+        System.arraycopy(src.rowSlots, 0, rowSlots, 0, rows);
+        System.arraycopy(src.slotUsed, 0, slotUsed, 0, rows);
+        System.arraycopy(src.heights, 0, heights, 0, cols);
+    }
+
+    // ミノを盤面に書き込む
+    public void place(int[] rowMasks, int color, int x, int y) {
+        for (int r = 0; r < rowMasks.length; r++) {
+            int mask = rowMasks[r];
+            int by = y + r;
+            if (mask == 0 || by < 0 || by >= rows) {
+                continue;
+            }
+            int slot = rowSlots[by];
+            useSlot(slot);
+            setRowBits(by, mask, x);
+            byte[] chunk = colors[slot >>> CHUNK_BITS];
+            int base = (slot & (CHUNK_ROWS - 1)) * cols;
+            int height = rows - by;
+            while (mask != 0) {
+                int bit = Integer.numberOfTrailingZeros(mask);
+                chunk[base + x + bit] = (byte) color;
+                if (heights[x + bit] < height) {
+                    heights[x + bit] = height;
+                }
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    // 1マスにブロックを置く（リプレイのキーフレームから盤面を復元する用、colorは1以上）
+    public void set(int x, int y, int color) {
+        int slot = rowSlots[y];
+        useSlot(slot);
+        setRowBits(y, 1, x);
+        colors[slot >>> CHUNK_BITS][(slot & (CHUNK_ROWS - 1)) * cols + x] = (byte) color;
+        heights[x] = Math.max(heights[x], rows - y);
+    }
+
+    // 行が埋まっているか（満杯マスクとの比較）
+    public boolean isFull(int y) {
+        int slot = rowSlots[y];
+        if (!slotUsed[slot]) {
+            return false;
+        }
+        long[] chunk = occupancy[slot >>> CHUNK_BITS];
+        int base = (slot & (CHUNK_ROWS - 1)) * words;
+        for (int w = 0; w < words; w++) {
+            if (chunk[base + w] != fullMask[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 行[top, bottom]（置いたミノの行）だけ揃っているか調べて消し、上の行を詰める。
+    // 消した行番号（消去前の番号、下から順）をclearedRowsに書き込み、行数を返す。
+    // 何も消えなければ調べた行数分だけで終わり、消えた時も一番下の消えた行より上しか動かさない
+    public int clearFullRows(int top, int bottom, int[] clearedRows) {
+        top = Math.max(0, top);
+        bottom = Math.min(rows - 1, bottom);
+        int cleared = 0;
+        int lowest = -1;
+        for (int y = bottom; y >= top; y--) {
+            if (isFull(y)) {
+                if (clearedRows != null) {
+                    clearedRows[cleared] = y;
+                }
+                if (lowest < 0) {
+                    lowest = y;
+                }
+                freeSlots[cleared++] = rowSlots[y];
+            }
+        }
+        if (cleared == 0) {
+            return 0;
+        }
+
+        // 消えた行を飛ばしながら残る行の対応だけを下に詰める（行データ自体はコピーしない）
+        int write = lowest;
+        int skip = 0;
+        for (int y = lowest; y >= 0; y--) {
+            int slot = rowSlots[y];
+            if (skip < cleared && slot == freeSlots[skip]) {
+                skip++;
+            } else {
+                rowSlots[write--] = slot;
+            }
+        }
+
+        // 空いた物理行を上に回してゼロクリア（チャンクが空になったら解放）
+        for (int i = 0; i < cleared; i++) {
+            int slot = freeSlots[i];
+            rowSlots[i] = slot;
+            releaseSlot(slot);
+        }
+        updateHeightsAfterClear(cleared);
+        return cleared;
+    }
+
+    // 行消去後の列の高さを更新（一番上のブロックが残っていればcleared分下げるだけ）
+    private void updateHeightsAfterClear(int cleared) {
+        for (int x = 0; x < cols; x++) {
+            int height = heights[x] - cleared;
+            if (height > 0 && !isOccupied(x, rows - height)) {
+                // 一番上のブロックが消えた行にあった列だけ下を探す
+                int y = rows - height;
+                while (y < rows && !isOccupied(x, y)) {
+                    y++;
+                }
+                height = rows - y;
+            }
+            heights[x] = Math.max(0, height);
+        }
+    }
+
+    // 物理行にブロックを書き込む前に呼ぶ（チャンクが無ければ確保）
+    private void useSlot(int slot) {
+        if (slotUsed[slot]) {
+            return;
+        }
+        int c = slot >>> CHUNK_BITS;
+        if (occupancy[c] == null) {
+            allocateChunk(c);
+        }
+        slotUsed[slot] = true;
+        chunkUsedRows[c]++;
+    }
+
+    // チャンクを確保（予備があれば使い回す）
+    private void allocateChunk(int c) {
+        long[] occ = spareOccupancy.poll();
+        byte[] col = spareColors.poll();
+        occupancy[c] = occ != null ? occ : new long[CHUNK_ROWS * words];
+        colors[c] = col != null ? col : new byte[CHUNK_ROWS * cols];
+    }
+
+    // 物理行を空にする（チャンク内の行がすべて空になったらチャンクごと解放）
+    private void releaseSlot(int slot) {
+        if (!slotUsed[slot]) {
+            return;
+        }
+        slotUsed[slot] = false;
+        int c = slot >>> CHUNK_BITS;
+        if (--chunkUsedRows[c] == 0) {
+            releaseChunk(c);
+        } else {
+            int row = slot & (CHUNK_ROWS - 1);
+            Arrays.fill(occupancy[c], row * words, row * words + words, 0L);
+            Arrays.fill(colors[c], row * cols, row * cols + cols, (byte) 0);
+        }
+    }
+
+    // チャンクをゼロクリアして予備に戻す
+    private void releaseChunk(int c) {
+        Arrays.fill(occupancy[c], 0L);
+        Arrays.fill(colors[c], (byte) 0);
+        spareOccupancy.push(occupancy[c]);
+        spareColors.push(colors[c]);
+        occupancy[c] = null;
+        colors[c] = null;
+        chunkUsedRows[c] = 0;
+    }
+
+    // SRSの枠は左端からはみ出すことがある（x < 0）。はみ出した分だけマスクをずらして0列目から置く
+    // （はみ出した列は空なので落ちるビットは無い）
+    private static int clipLeft(int mask, int x) {
+        return x < 0 ? mask >>> -x : mask;
+    }
+
+    // 行yの占有ビットとマスクが重なるか
+    private boolean overlaps(int y, int mask, int x) {
+        int slot = rowSlots[y];
+        if (!slotUsed[slot]) {
+            return false;
+        }
+        mask = clipLeft(mask, x);
+        x = Math.max(x, 0);
+        int w = x >>> 6;
+        int off = x & 63;
+        long[] chunk = occupancy[slot >>> CHUNK_BITS];
+        int base = (slot & (CHUNK_ROWS - 1)) * words;
+        if ((chunk[base + w] & ((long) mask << off)) != 0) {
+            return true;
+        }
+        return off != 0 && w + 1 < words
+                && (chunk[base + w + 1] & ((long) mask >>> (64 - off))) != 0;
+    }
+
+    // 行yにマスクのビットを立てる
+    private void setRowBits(int y, int mask, int x) {
+        mask = clipLeft(mask, x);
+        x = Math.max(x, 0);
+        int w = x >>> 6;
+        int off = x & 63;
+        int slot = rowSlots[y];
+        long[] chunk = occupancy[slot >>> CHUNK_BITS];
+        int base = (slot & (CHUNK_ROWS - 1)) * words;
+        chunk[base + w] |= (long) mask << off;
+        if (off != 0 && w + 1 < words) {
+            chunk[base + w + 1] |= (long) mask >>> (64 - off);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+public class BoardLayer {
+    private static final Color GRID_COLOR = new Color(40, 40, 40);
+
+    // キャッシュ画像（VolatileImageが使えない環境ではBufferedImage）
+    private VolatileImage volatileImage;
+    private BufferedImage bufferedImage;
+    private int width;
+    private int height;
+    private int tileSize;
+    private int viewX; // 画像に描かれている範囲の左上のマス
+    private int viewY;
+    private long boardVersion = -1; // 画像に描かれている盤面の版
+
+    // 次回の描画で必ず作り直す
+    public void invalidate() {
+        boardVersion = -1;
+    }
+
+    // 盤面全体のグリッド線と固定ブロックの画像を(x, y)に転送
+    public void paint(Graphics g, GraphicsConfiguration gc, BitBoard board, long version,
+                      int x, int y, int tileSize) {
+        paint(g, gc, board, version, x, y, tileSize, 0, 0, board.getCols(), board.getRows());
+    }
+
+    // 表示範囲（左上のマス(viewX, viewY)からviewCols×viewRowsマス）の画像を(x, y)に転送
+    // （盤面の版・サイズ・表示範囲が変わった時だけ描き直す）
+    public void paint(Graphics g, GraphicsConfiguration gc, BitBoard board, long version,
+                      int x, int y, int tileSize, int viewX, int viewY, int viewCols, int viewRows) {
+        int w = viewCols * tileSize + 1;
+        int h = viewRows * tileSize + 1;
+        boolean resized = w != width || h != height || tileSize != this.tileSize;
+        if (resized) {
+            width = w;
+            height = h;
+            this.tileSize = tileSize;
+            release();
+        }
+        if (viewX != this.viewX || viewY != this.viewY) {
+            this.viewX = viewX;
+            this.viewY = viewY;
+            boardVersion = -1;
+        }
+
+        if (gc != null && bufferedImage == null) {
+            if (paintVolatile(g, gc, board, version, x, y)) {
+                return;
+            }
+        }
+
+        // フォールバック
+        if (bufferedImage == null) {
+            bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            boardVersion = -1;
+        }
+        if (boardVersion != version) {
+            render(bufferedImage.createGraphics(), board);
+            boardVersion = version;
+        }
+        g.drawImage(bufferedImage, x, y, null);
+    }
+
+    // VolatileImageで転送（使えなければfalse）
+    private boolean paintVolatile(Graphics g, GraphicsConfiguration gc, BitBoard board, long version,
+                                  int x, int y) {
+        do {
+            if (volatileImage == null) {
+                try {
+                    volatileImage = gc.createCompatibleVolatileImage(width, height);
+                } catch (RuntimeException e) {
+                    volatileImage = null;
+                }
+                if (volatileImage == null) {
+                    return false;
+                }
+                boardVersion = -1;
+            }
+            int status = volatileImage.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileImage.flush();
+                volatileImage = null;
+                continue;
+            }
+            if (status == VolatileImage.IMAGE_RESTORED || boardVersion != version) {
+                render(volatileImage.createGraphics(), board);
+                boardVersion = version;
+            }
+            g.drawImage(volatileImage, x, y, null);
+        } while (volatileImage == null || volatileImage.contentsLost());
+        return true;
+    }
+
+    // 背景・グリッド線・固定ブロックを描く（表示範囲内だけ）
+    private void render(Graphics2D g, BitBoard board) {
+        int cols = (width - 1) / tileSize;
+        int rows = (height - 1) / tileSize;
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+
+        g.setColor(GRID_COLOR);
+        for (int i = 0; i <= rows; i++) {
+            g.drawLine(0, i * tileSize, cols * tileSize, i * tileSize);
+        }
+        for (int i = 0; i <= cols; i++) {
+            g.drawLine(i * tileSize, 0, i * tileSize, rows * tileSize);
+        }
+
+        // ブロックはグリッド線の内側にアトラスから転送（空の行は飛ばし、埋まったビットだけ辿る）
+        TileAtlas atlas = TileAtlas.forSize(tileSize);
+        int firstRow = Math.max(viewY, board.getTopRow());
+        int lastRow = Math.min(board.getRows(), viewY + rows);
+        int lastCol = Math.min(board.getCols(), viewX + cols);
+        for (int y = firstRow; y < lastRow; y++) {
+            if (board.isRowEmpty(y)) {
+                continue;
+            }
+            for (int w = viewX >>> 6; w <= (lastCol - 1) >>> 6; w++) {
+                long bits = board.getRowWord(y, w);
+                while (bits != 0) {
+                    int x = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (x >= viewX && x < lastCol) {
+                        atlas.draw(g, board.get(x, y), (x - viewX) * tileSize, (y - viewY) * tileSize);
+                    }
+                }
+            }
+        }
+        g.dispose();
+    }
+
+    // 画像を解放
+    private void release() {
+        if (volatileImage != null) {
+            volatileImage.flush();
+            volatileImage = null;
+        }
+        bufferedImage = null;
+        boardVersion = -1;
+    }
+}
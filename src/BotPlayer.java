@@ -0,0 +1,141 @@
+import java.util.concurrent.ForkJoinPool;
+
+public class BotPlayer implements PlayPolicy {
+    public static final long SEARCH_BUDGET_NANOS = 16_000_000L; // 1ミノの探索にかけてよい時間（約1フレーム）
+
+    private final PlacementSearch search;
+
+    // --- 今のミノの目標（ミノが出るたびに探索し直す） ---
+    private long plannedPiece = -1; // 探索した時点の固定済みミノ数
+    private boolean hasPlan;
+    private int targetRotation;
+    private int targetX;
+    private int ticksOnPiece; // 目標に着けないまま経過したティック数
+    private int game;         // resetのたびに増やす（探索している間にゲームが変わったら結果を使わない）
+
+    // --- 探索に使う写し（prepareでエンジンから写し、searchPreparedで探索する） ---
+    private BitBoard board;
+    private int type;
+    private int rotation;
+    private int x;
+    private int y;
+    private int nextType;
+    private long preparedPiece;
+    private int preparedGame;
+
+    // --- 探索結果（nextInputsで今のミノの目標にする） ---
+    private long foundPiece = -1;
+    private int foundGame;
+    private boolean found;
+    private int foundRotation;
+    private int foundX;
+
+    // --- 計測値 ---
+    private volatile long lastSearchNanos;
+    private volatile long maxSearchNanos;
+    private volatile long searchCount;
+    private volatile long overBudgetCount; // SEARCH_BUDGET_NANOSを超えた探索の数
+
+    public BotPlayer(ForkJoinPool pool) {
+        this.search = new PlacementSearch(pool);
+    }
+
+    @Override
+    public void reset() {
+        plannedPiece = -1;
+        hasPlan = false;
+        game++;
+    }
+
+    @Override
+    public int nextInputs(GameEngine engine) {
+        if (engine.isGameOver()) {
+            return 0;
+        }
+        if (engine.getPiecesPlaced() != plannedPiece) {
+            // 呼び出し側が先に探索していなければここで探す
+            if (prepare(engine)) {
+                searchPrepared();
+            }
+            adopt(engine);
+        }
+        if (!hasPlan || ++ticksOnPiece > engine.getCols() * 2 + 4) {
+            // 置き場所が無い・たどり着けない時はそのまま落とす
+            return GameEngine.INPUT_HARD_DROP;
+        }
+
+        // 回転→左右移動→ハードドロップの順に1ティックずつ進める
+        int rotation = engine.getMinoRotation();
+        if (rotation != targetRotation) {
+            return ((targetRotation - rotation) & 3) == 3
+                    ? GameEngine.INPUT_ROTATE_LEFT : GameEngine.INPUT_ROTATE_RIGHT;
+        }
+        int x = engine.getCurrentX();
+        if (x < targetX) {
+            return GameEngine.INPUT_RIGHT;
+        } else if (x > targetX) {
+            return GameEngine.INPUT_LEFT;
+        }
+        return GameEngine.INPUT_HARD_DROP;
+    }
+
+    // 今のミノの置き場所をまだ探していなければ、探索に要る状態（盤面・今のミノ・次のミノ）を写してtrue。
+    // エンジンのロック中に呼び、searchPreparedはロックの外で呼べる（探索の間も描画とキー入力を止めない）
+    public boolean prepare(GameEngine engine) {
+        long piece = engine.getPiecesPlaced();
+        if (engine.isGameOver() || piece == plannedPiece || (foundPiece == piece && foundGame == game)) {
+            return false;
+        }
+        BitBoard source = engine.getBoard();
+        if (board == null || board.getCols() != source.getCols() || board.getRows() != source.getRows()) {
+            board = new BitBoard(source.getCols(), source.getRows());
+        }
+        board.copyFrom(source);
+        type = engine.getMinoType();
+        rotation = engine.getMinoRotation();
+        x = engine.getCurrentX();
+        y = engine.getCurrentY();
+        PieceGenerator generator = engine.getGenerator();
+        nextType = generator != null && generator.getPreviewCount() > 0 ? generator.peek(0) : -1;
+        preparedPiece = piece;
+        preparedGame = game;
+        return true;
+    }
+
+    // prepareで写した状態から、今のミノと次のミノを読んで置き場所を探す
+    public void searchPrepared() {
+        found = search.search(board, type, rotation, x, y, nextType);
+        if (found) {
+            foundRotation = search.getBestRotation();
+            foundX = search.getBestX();
+        }
+        foundPiece = preparedPiece;
+        foundGame = preparedGame;
+        long nanos = search.getSearchNanos();
+        lastSearchNanos = nanos;
+        if (nanos > maxSearchNanos) {
+            maxSearchNanos = nanos;
+        }
+        searchCount++;
+        if (nanos > SEARCH_BUDGET_NANOS) {
+            overBudgetCount++;
+        }
+    }
+
+    // 探索結果を今のミノの目標にする（prepareがfalseを返した後なので、結果は今のミノのもの）
+    private void adopt(GameEngine engine) {
+        plannedPiece = engine.getPiecesPlaced();
+        ticksOnPiece = 0;
+        hasPlan = found;
+        if (hasPlan) {
+            targetRotation = foundRotation;
+            targetX = foundX;
+        }
+    }
+
+    // ゲッター
+    public long getLastSearchNanos() { return lastSearchNanos; }
+    public long getMaxSearchNanos() { return maxSearchNanos; }
+    public long getSearchCount() { return searchCount; }
+    public long getOverBudgetCount() { return overBudgetCount; }
+}
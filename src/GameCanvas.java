@@ -0,0 +1,129 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+public class GameCanvas extends Canvas {
+    // 1フレーム分を描く処理
+    @FunctionalInterface
+    interface FramePainter {
+        void paintFrame(Graphics g, int width, int height);
+    }
+
+    private final int bufferCount; // 2～3枚
+    private BufferStrategy strategy;
+
+    // --- 計測値 ---
+    private volatile double fps;
+    private volatile long lastShowNanos; // 直前のshow()でブロックした時間
+    private volatile long maxShowNanos;
+    private long totalShowNanos;
+    private long frameCount;
+    private long windowStart;  // FPS計測の区間開始時刻
+    private int windowFrames;
+
+    public GameCanvas(int bufferCount) {
+        this.bufferCount = Math.max(2, Math.min(3, bufferCount));
+        setIgnoreRepaint(true); // 描画はゲームループから能動的に行う
+        setFocusable(false);    // キー入力は親のGamePanelで受ける
+        setBackground(Color.BLACK);
+    }
+
+    // バッファに1フレーム描いて表示（ゲームループのスレッドから呼ぶ）
+    public synchronized void render(FramePainter painter) {
+        int width = getWidth();
+        int height = getHeight();
+        if (!isDisplayable() || width <= 0 || height <= 0) {
+            return;
+        }
+        if (strategy == null) {
+            createStrategy();
+        }
+
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    painter.paintFrame(g, width, height);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+
+            long start = System.nanoTime();
+            strategy.show();
+            Toolkit.getDefaultToolkit().sync();
+            recordShow(System.nanoTime() - start);
+        } while (strategy.contentsLost());
+
+        countFrame();
+    }
+
+    // ページフリップを優先してバッファを作成（使えなければ通常のバッファ）
+    private void createStrategy() {
+        try {
+            createBufferStrategy(bufferCount, new BufferCapabilities(
+                    new ImageCapabilities(true),
+                    new ImageCapabilities(true),
+                    BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e) {
+            createBufferStrategy(bufferCount);
+        }
+        strategy = getBufferStrategy();
+    }
+
+    // ウィンドウに付けられた時（フルスクリーンの切り替えで別のウィンドウに移った時も）はバッファを作り直す。
+    // ウィンドウが表示されてから作るとページフリップを使えるので、EDTの後回しにする
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        EventQueue.invokeLater(this::recreateStrategy);
+    }
+
+    private synchronized void recreateStrategy() {
+        if (isDisplayable() && strategy == null) {
+            createStrategy();
+        }
+    }
+
+    @Override
+    public synchronized void removeNotify() {
+        if (strategy != null) {
+            strategy.dispose();
+            strategy = null;
+        }
+        super.removeNotify();
+    }
+
+    private void recordShow(long nanos) {
+        lastShowNanos = nanos;
+        totalShowNanos += nanos;
+        if (nanos > maxShowNanos) {
+            maxShowNanos = nanos;
+        }
+    }
+
+    // 1秒ごとにFPSを更新
+    private void countFrame() {
+        frameCount++;
+        windowFrames++;
+        long now = System.nanoTime();
+        if (windowStart == 0) {
+            windowStart = now;
+        } else if (now - windowStart >= 1_000_000_000L) {
+            fps = windowFrames * 1e9 / (now - windowStart);
+            windowStart = now;
+            windowFrames = 0;
+        }
+    }
+
+    // ゲッター
+    public double getFps() { return fps; }
+    public long getLastShowNanos() { return lastShowNanos; }
+    public long getMaxShowNanos() { return maxShowNanos; }
+    public synchronized long getAverageShowNanos() {
+        return frameCount == 0 ? 0 : totalShowNanos / frameCount;
+    }
+    public boolean isPageFlipping() {
+        BufferStrategy s = strategy;
+        return s != null && s.getCapabilities().isPageFlipping();
+    }
+}
@@ -0,0 +1,362 @@
+public class GameEngine {
+    // 入力ビット（step / input にまとめて渡す）
+    public static final int INPUT_LEFT = 1;
+    public static final int INPUT_RIGHT = 1 << 1;
+    public static final int INPUT_DOWN = 1 << 2;
+    public static final int INPUT_ROTATE_RIGHT = 1 << 3;
+    public static final int INPUT_ROTATE_LEFT = 1 << 4;
+    public static final int INPUT_HARD_DROP = 1 << 5;
+
+    // 同時に消した行数ごとの得点（5行以上は4行と同じ）
+    private static final int[] LINE_SCORES = {0, 100, 300, 500, 800};
+
+    // 重力は1ティックあたりのマス数を16.16固定小数点で持つ
+    public static final int GRAVITY_ONE = 1 << 16;
+
+    // takeDirtyの戻り値
+    public static final int DIRTY_NONE = 0;   // 変更なし
+    public static final int DIRTY_REGION = 1; // 範囲内のマスだけ変更
+    public static final int DIRTY_ALL = 2;    // 盤面全体を描き直す（ライン消去・リセット）
+
+    // --- 盤面 ---
+    private final int cols;
+    private final int rows;
+    private final BitBoard board;
+    private final int[] clearedRows; // 直前に消えた行番号（スコアや演出用）
+    private int clearedCount;
+    private long boardVersion; // 固定ブロックが変わるたびに増える（描画キャッシュの判定用）
+    private PieceGenerator generator;
+
+    // 現在落ちているブロックの情報
+    private int currentX;
+    private int currentY;
+    private int[][] minoShape;
+    private int[] minoMasks;  // minoShapeの行ごとのビットマスク
+    private int minoType;     // ミノの種類（Tetromino.I など）
+    private int minoRotation; // ミノの向き（0～3）
+    private int ghostY;       // そのまま落とした時の着地位置（移動・回転のたびに更新）
+
+    // --- 重力 ---
+    private int gravity = GRAVITY_ONE; // 1ティックあたりの落下量
+    private int gravityProgress;       // 次の1マスまでの蓄積
+
+    // --- 描画用の変更範囲（前回takeDirtyしてから変わったマス） ---
+    private boolean dirtyAll = true;
+    private int dirtyMinX = Integer.MAX_VALUE;
+    private int dirtyMinY = Integer.MAX_VALUE;
+    private int dirtyMaxX = Integer.MIN_VALUE;
+    private int dirtyMaxY = Integer.MIN_VALUE;
+
+    // --- 進行状況 ---
+    private boolean gameOver;
+    private long tickCount;
+    private long linesCleared;
+    private long piecesPlaced;
+    private long score;
+
+    public GameEngine(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.board = new BitBoard(cols, rows);
+        this.clearedRows = new int[rows];
+    }
+
+    // ゲームをリセットして最初のミノを出す
+    public void reset(PieceGenerator generator) {
+        this.generator = generator;
+        board.clear();
+        clearedCount = 0;
+        gravityProgress = 0;
+        gameOver = false;
+        tickCount = 0;
+        linesCleared = 0;
+        piecesPlaced = 0;
+        score = 0;
+        dirtyAll = true;
+        boardVersion++;
+        spawnMino();
+    }
+
+    // リプレイのキーフレームから状態を復元（cellsは盤面の色を行ごとに並べたもの、0は空）
+    void restore(PieceGenerator generator, byte[] cells, int type, int rotation, int x, int y,
+                 int gravityProgress, long tickCount, long linesCleared, long piecesPlaced, long score) {
+        this.generator = generator;
+        board.clear();
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != 0) {
+                board.set(i % cols, i / cols, cells[i]);
+            }
+        }
+        setMino(type, rotation);
+        currentX = x;
+        currentY = y;
+        updateGhost();
+        this.gravityProgress = gravityProgress;
+        this.tickCount = tickCount;
+        this.linesCleared = linesCleared;
+        this.piecesPlaced = piecesPlaced;
+        this.score = score;
+        clearedCount = 0;
+        gameOver = false;
+        dirtyAll = true;
+        boardVersion++;
+    }
+
+    // 1ティック分進める（入力を適用してから重力を適用）
+    public void step(int inputs) {
+        clearedCount = 0;
+        applyInput(inputs);
+        applyGravity();
+    }
+
+    // 入力だけを適用（回転→左右→下→ハードドロップの順）
+    public void input(int inputs) {
+        clearedCount = 0;
+        applyInput(inputs);
+    }
+
+    // 1ティック分の重力を適用（1マス分溜まるごとに落下）
+    public void tick() {
+        clearedCount = 0;
+        applyGravity();
+    }
+
+    private void applyInput(int inputs) {
+        if (gameOver || inputs == 0) {
+            return;
+        }
+        markPieceDirty();
+        markGhostDirty();
+        if ((inputs & INPUT_ROTATE_RIGHT) != 0) {
+            rotate(true);
+        }
+        if ((inputs & INPUT_ROTATE_LEFT) != 0) {
+            rotate(false);
+        }
+        if ((inputs & INPUT_LEFT) != 0) {
+            moveMino(-1, 0);
+        }
+        if ((inputs & INPUT_RIGHT) != 0) {
+            moveMino(1, 0);
+        }
+        if ((inputs & INPUT_DOWN) != 0) {
+            moveMino(0, 1);
+        }
+        if ((inputs & INPUT_HARD_DROP) != 0) {
+            hardDrop();
+        }
+        markPieceDirty();
+        markGhostDirty();
+    }
+
+    private void applyGravity() {
+        if (gameOver) {
+            return;
+        }
+        tickCount++;
+        // 補間描画で毎ティック位置が変わるので、落下中のミノは常に描き直す
+        markPieceDirty();
+        gravityProgress += gravity;
+        while (gravityProgress >= GRAVITY_ONE && !gameOver) {
+            gravityProgress -= GRAVITY_ONE;
+            fall();
+        }
+        markPieceDirty();
+    }
+
+    // 1マス落とす（落ちられなければ固定して次のミノへ）
+    private void fall() {
+        if (currentY < ghostY) {
+            currentY++;
+        } else {
+            lockMino();
+        }
+    }
+
+    // 着地位置まで一気に落として固定
+    public void hardDrop() {
+        if (gameOver) {
+            return;
+        }
+        currentY = ghostY;
+        markPieceDirty();
+        lockMino();
+    }
+
+    // 固定→ライン消去→次のミノ
+    private void lockMino() {
+        fixMino();
+        checkLines(currentY, currentY + minoMasks.length - 1); // 揃う可能性があるのは置いたミノの行だけ
+        spawnMino();
+        gravityProgress = 0;
+    }
+
+    // 重力を設定（1ティックあたりのマス数、GRAVITY_ONEが1マス）
+    public void setGravity(int gravity) {
+        this.gravity = gravity;
+    }
+
+    // 1マス落ちるまでのミリ秒から重力を計算
+    public static int gravityFromMillis(int millisPerCell, int tickRate) {
+        long perTick = (long) GRAVITY_ONE * 1000 / ((long) Math.max(1, millisPerCell) * tickRate);
+        return (int) Math.max(1, Math.min(perTick, (long) GRAVITY_ONE * 64));
+    }
+
+    // 壁蹴りを試しながら回転を適用（事前計算したテーブルを引くだけ）
+    public boolean rotate(boolean clockwise) {
+        int newRotation = Tetromino.rotated(minoRotation, clockwise);
+        int[] newMasks = Tetromino.masks(minoType, newRotation);
+        int kicks = Tetromino.kickCount(minoType);
+
+        for (int i = 0; i < kicks; i++) {
+            int newX = currentX + Tetromino.kickX(minoType, minoRotation, clockwise, i);
+            int newY = currentY + Tetromino.kickY(minoType, minoRotation, clockwise, i);
+            if (!board.collides(newMasks, newX, newY)) {
+                currentX = newX;
+                currentY = newY;
+                setMino(minoType, newRotation);
+                updateGhost();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 移動処理
+    public boolean moveMino(int dx, int dy) {
+        if (canMove(currentX + dx, currentY + dy)) {
+            currentX += dx;
+            currentY += dy;
+            if (dx != 0) {
+                updateGhost();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // 移動可能かチェック
+    public boolean canMove(int newX, int newY) {
+        return !board.collides(minoMasks, newX, newY);
+    }
+
+    // 現在のミノの種類と向きを設定
+    private void setMino(int type, int rotation) {
+        minoType = type;
+        minoRotation = rotation;
+        minoShape = Tetromino.shape(type, rotation);
+        minoMasks = Tetromino.masks(type, rotation);
+    }
+
+    // 着地位置を更新（列の高さとミノの底の形から求める）
+    private void updateGhost() {
+        ghostY = board.dropY(minoMasks, Tetromino.bottoms(minoType, minoRotation), currentX, currentY);
+    }
+
+    // ブロックを固定（ベンチマークから直接呼ぶためパッケージプライベート）
+    void fixMino() {
+        board.place(minoMasks, Tetromino.color(minoType), currentX, currentY);
+        piecesPlaced++;
+        boardVersion++;
+    }
+
+    // 行[top, bottom]のラインチェック（消えた行数を返す）
+    int checkLines(int top, int bottom) {
+        clearedCount = board.clearFullRows(top, bottom, clearedRows);
+        linesCleared += clearedCount;
+        score += LINE_SCORES[Math.min(clearedCount, LINE_SCORES.length - 1)];
+        if (clearedCount > 0) {
+            dirtyAll = true;
+            boardVersion++;
+        }
+        return clearedCount;
+    }
+
+    // 新しいミノを生成（置けなければゲームオーバー）
+    void spawnMino() {
+        int index = generator.next();
+        setMino(index, 0);
+
+        currentX = (cols - Tetromino.boxSize(index)) / 2;
+        currentY = 0;
+
+        if (!canMove(currentX, currentY)) {
+            gameOver = true;
+            ghostY = currentY;
+        } else {
+            updateGhost();
+        }
+        markPieceDirty();
+        markGhostDirty();
+    }
+
+    // 現在のミノの枠（補間で1マス下にずれる分を含む）を変更範囲に加える
+    private void markPieceDirty() {
+        if (minoShape == null) {
+            return;
+        }
+        int size = minoShape.length;
+        dirtyMinX = Math.min(dirtyMinX, currentX);
+        dirtyMinY = Math.min(dirtyMinY, currentY);
+        dirtyMaxX = Math.max(dirtyMaxX, currentX + size - 1);
+        dirtyMaxY = Math.max(dirtyMaxY, currentY + size);
+    }
+
+    // 着地位置の影の枠を変更範囲に加える
+    private void markGhostDirty() {
+        if (minoShape == null) {
+            return;
+        }
+        int size = minoShape.length;
+        dirtyMinX = Math.min(dirtyMinX, currentX);
+        dirtyMinY = Math.min(dirtyMinY, ghostY);
+        dirtyMaxX = Math.max(dirtyMaxX, currentX + size - 1);
+        dirtyMaxY = Math.max(dirtyMaxY, ghostY + size - 1);
+    }
+
+    // 前回からの変更範囲を取り出してリセット。DIRTY_REGIONの時はout = {minX, minY, maxX, maxY}（盤面内に切り詰め）
+    public int takeDirty(int[] out) {
+        int result;
+        if (dirtyAll) {
+            result = DIRTY_ALL;
+        } else if (dirtyMinX > dirtyMaxX) {
+            result = DIRTY_NONE;
+        } else {
+            out[0] = Math.max(0, dirtyMinX);
+            out[1] = Math.max(0, dirtyMinY);
+            out[2] = Math.min(cols - 1, dirtyMaxX);
+            out[3] = Math.min(rows - 1, dirtyMaxY);
+            result = out[0] <= out[2] && out[1] <= out[3] ? DIRTY_REGION : DIRTY_NONE;
+        }
+        dirtyAll = false;
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = Integer.MIN_VALUE;
+        dirtyMaxY = Integer.MIN_VALUE;
+        return result;
+    }
+
+    // ゲッター
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public BitBoard getBoard() { return board; }
+    public long getBoardVersion() { return boardVersion; }
+    public PieceGenerator getGenerator() { return generator; }
+    public int getCurrentX() { return currentX; }
+    public int getCurrentY() { return currentY; }
+    public int[][] getMinoShape() { return minoShape; }
+    public int getMinoType() { return minoType; }
+    public int getMinoRotation() { return minoRotation; }
+    public int getGhostY() { return ghostY; }
+    public boolean isGameOver() { return gameOver; }
+    public int getGravity() { return gravity; }
+    public int getGravityProgress() { return gravityProgress; }
+    public long getTickCount() { return tickCount; }
+    public long getLinesCleared() { return linesCleared; }
+    public long getPiecesPlaced() { return piecesPlaced; }
+    public long getScore() { return score; }
+
+    // 直前のstep / input / tickで消えた行（clearedRows[0..getClearedCount()-1]が有効）
+    public int[] getClearedRows() { return clearedRows; }
+    public int getClearedCount() { return clearedCount; }
+}
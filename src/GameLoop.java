@@ -0,0 +1,147 @@
+import java.util.concurrent.locks.LockSupport;
+
+public class GameLoop implements Runnable {
+    // 論理ティックの周期（描画とは独立）
+    public static final int TICK_RATE = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICK_RATE;
+    private static final int MAX_CATCH_UP = 5; // 1回にまとめて処理する最大ティック数
+    // 描画を要求する周期（ティックとは独立。ティックの間の位置はalphaで補間して描く）
+    public static final int FRAME_RATE = 120;
+    public static final long FRAME_NANOS = 1_000_000_000L / FRAME_RATE;
+
+    private final Runnable tickTask;  // 1ティック分の処理（ループスレッドで実行）
+    private final Runnable frameTask; // 描画要求（repaintなど、ティックの直後とFRAME_NANOSごと）
+    private Thread thread;
+    private volatile boolean running;
+    private volatile boolean paused = true;
+    private volatile boolean resync; // 再開時に溜まった時間を捨てる
+    private volatile LatencyHistogram tickHistogram; // 1ティックの処理時間（nullなら計測しない）
+
+    // --- 計測値 ---
+    private volatile double alpha;         // 次のティックまでの進み具合（0～1、補間描画用）
+    private volatile long tickCount;
+    private volatile long missedTicks;     // 遅れすぎて捨てたティック数
+    private volatile long maxLatenessNanos; // 予定時刻からの最大の遅れ
+    private volatile long totalLatenessNanos;
+
+    public GameLoop(Runnable tickTask, Runnable frameTask) {
+        this.tickTask = tickTask;
+        this.frameTask = frameTask;
+    }
+
+    // スレッドを開始（最初は一時停止状態）
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "GameLoop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // スレッドを止める
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread = null;
+        }
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        resync = true;
+        paused = false;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    public boolean isPaused() { return paused; }
+
+    public void setTickHistogram(LatencyHistogram histogram) {
+        this.tickHistogram = histogram;
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            if (paused) {
+                LockSupport.parkNanos(this, TICK_NANOS);
+                continue;
+            }
+            long now = System.nanoTime();
+            if (resync) {
+                resync = false;
+                previous = now;
+                accumulator = 0;
+                nextFrame = now;
+            }
+            accumulator += now - previous;
+            previous = now;
+
+            // 遅れすぎた分は追いつこうとせず捨てる
+            long maxBacklog = TICK_NANOS * MAX_CATCH_UP;
+            if (accumulator > maxBacklog) {
+                missedTicks += (accumulator - maxBacklog) / TICK_NANOS;
+                accumulator = maxBacklog;
+            }
+
+            boolean ticked = false;
+            while (accumulator >= TICK_NANOS && !paused) {
+                recordLateness(accumulator - TICK_NANOS);
+                long start = System.nanoTime();
+                tickTask.run();
+                LatencyHistogram histogram = tickHistogram;
+                if (histogram != null) {
+                    histogram.record(System.nanoTime() - start);
+                }
+                tickCount++;
+                accumulator -= TICK_NANOS;
+                ticked = true;
+            }
+
+            // ティックの直後は変化をすぐ見せ、それ以外はフレームの周期で補間した位置を描く
+            now = System.nanoTime();
+            if (ticked || now - nextFrame >= 0) {
+                alpha = Math.min(1.0, (double) (accumulator + now - previous) / TICK_NANOS);
+                frameTask.run();
+                nextFrame = now + FRAME_NANOS;
+            }
+
+            // 次のティックか次のフレームの早い方まで待つ
+            now = System.nanoTime();
+            long wait = Math.min(TICK_NANOS - accumulator - (now - previous), nextFrame - now);
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    // ティックが予定時刻からどれだけ遅れたかを記録
+    private void recordLateness(long lateness) {
+        totalLatenessNanos += lateness;
+        if (lateness > maxLatenessNanos) {
+            maxLatenessNanos = lateness;
+        }
+    }
+
+    // ゲッター
+    public double getAlpha() { return alpha; }
+    public long getTickCount() { return tickCount; }
+    public long getMissedTicks() { return missedTicks; }
+    public long getMaxLatenessNanos() { return maxLatenessNanos; }
+    public long getAverageLatenessNanos() {
+        long ticks = tickCount;
+        return ticks == 0 ? 0 : totalLatenessNanos / ticks;
+    }
+}
@@ -1,12 +1,17 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.Random;
+import java.awt.image.VolatileImage;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
-public class GamePanel extends JPanel implements ActionListener {
+public class GamePanel extends JPanel {
     // --- 設定値 (GameSettingsから取得) ---
     private GameSettings settings;
     private int TILE_SIZE;
@@ -14,74 +19,101 @@ public class GamePanel extends JPanel implements ActionListener {
     private int ROWS;
 
     // --- ゲームの状態 ---
-    private Timer timer;
-    private int[][] board;
+    private GameLoop loop;     // 固定周期のシミュレーションスレッド
+    private GameEngine engine; // ルールはすべてエンジン側（このパネルは描画と入力のみ）
+    private final InputState input = new InputState(); // キーの押下状態（ティックごとにポーリング）
+    private final int[] dirtyCells = new int[4];       // 再描画するマスの範囲（ループスレッド専用）
+    private final int[] pieceCells = new int[4];       // 前のフレームで落下中のミノを描いた範囲（ループスレッド専用）
+    private boolean pieceCellsValid;
+    private final BotPlayer bot = new BotPlayer(ForkJoinPool.commonPool()); // 自動プレイ（デモ・負荷試験用）
+    private volatile boolean botEnabled = false; // F2で切り替え
+    private final ScoreStore scores; // nullなら記録しない（ベンチマーク用）
+    private boolean sessionRecorded; // このゲームをスコアに記録済みか（engineのロック中だけ触る）
+    private boolean botUsed;         // 自動プレイを使ったゲームはランキングに載せない
+    private ReplayWriter replay; // 記録中のリプレイ（engineのロック中だけ触る、保存しない設定ならnull）
+    private boolean replayHookAdded; // 終了時にリプレイを閉じる処理を登録したか（engineのロック中だけ触る）
+    private static final DateTimeFormatter REPLAY_NAME =
+            DateTimeFormatter.ofPattern("'replay_'yyyyMMdd_HHmmss_SSS'.rpl'");
+    private static final int PREVIEW_COUNT = 5; // 先読みするミノの数
     private CardLayout cardLayout;
     private JPanel mainPanel;
 
-    // 現在落ちているブロックの情報
-    private int currentX = 4;
-    private int currentY = 0;
-
-    // 7種類のミノの形状データ
-    private final int[][][] MINOS = {
-            {{1, 1, 1, 1}},           // I型
-            {{2, 2}, {2, 2}},         // O型
-            {{0, 3, 0}, {3, 3, 3}},   // T型
-            {{4, 4, 0}, {0, 4, 4}},   // S型
-            {{0, 5, 5}, {5, 5, 0}},   // Z型
-            {{6, 0, 0}, {6, 6, 6}},   // J型
-            {{0, 0, 7}, {7, 7, 7}}    // L型
-    };
-
-    private Color getColor(int type) {
-        switch (type) {
-            case 1: return Color.CYAN;
-            case 2: return Color.YELLOW;
-            case 3: return new Color(128, 0, 128);
-            case 4: return Color.RED;
-            case 5: return Color.GREEN;
-            case 6: return Color.BLUE;
-            case 7: return Color.ORANGE;
-            default: return Color.BLACK;
-        }
-    }
+    // --- 描画のキャッシュ ---
+    private final BoardLayer boardLayer = new BoardLayer(); // グリッド線と固定ブロックの画像
+    private GameCanvas canvas; // ACTIVE描画時のみ（nullならSwingのrepaintで描画）
+    private VolatileImage backbuffer; // 固定解像度で描く時の裏画面（描画するスレッドだけが触る）
+
+    // --- 性能計測 ---
+    private final PerfStats perfStats = new PerfStats();
+    private volatile boolean showPerfOverlay = false; // F3で切り替え
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+    private static final int OVERLAY_WIDTH = 440;
+    private static final int OVERLAY_LINE_HEIGHT = 15;
+    private volatile int overlayHeight = 100; // 表示する行数で変わる
+    private volatile int layoutWidth = -1;  // レイアウトを計算した時のパネルサイズ
+    private volatile int layoutHeight = -1;
+    private volatile int dynamicTileSize;
+    private volatile int offsetX;
+    private volatile int offsetY;
 
-    private int[][] minoShape;
+    // --- 表示範囲（盤面が画面に収まらない時はミノに合わせてスクロール） ---
+    private static final int VIEW_MARGIN = 3; // ミノの周りに常に見せておくマス数
+    private volatile int viewCols; // 表示するマス数
+    private volatile int viewRows;
+    private volatile int viewX;    // 表示範囲の左上のマス
+    private volatile int viewY;
 
     public GamePanel(CardLayout cardLayout, JPanel mainPanel) {
+        // スコアは起動時に裏で読み込みを始める
+        this(cardLayout, mainPanel, GameSettings.getInstance(), ScoreStore.getInstance());
+    }
+
+    // 設定とスコアの保存先を指定して作る（ベンチマークはファイルを使わない固定の設定とnullを渡す）
+    GamePanel(CardLayout cardLayout, JPanel mainPanel, GameSettings settings, ScoreStore scores) {
         this.cardLayout = cardLayout;
         this.mainPanel = mainPanel;
-        this.settings = GameSettings.getInstance();
+        this.settings = settings;
+        this.scores = scores;
         
         // 設定から値を取得
-        TILE_SIZE = settings.getTileSize();
-        COLS = settings.getBoardCols();
-        ROWS = settings.getBoardRows();
-        board = new int[ROWS][COLS];
+        SettingsSnapshot initial = settings.snapshot();
+        TILE_SIZE = initial.getTileSize();
+        COLS = initial.getBoardCols();
+        ROWS = initial.getBoardRows();
+        engine = new GameEngine(COLS, ROWS);
+        settings.addChangeListener(this::applySettings);
 
         // 最小サイズを設定（リサイズ可能にするため固定サイズは設定しない）
-        setMinimumSize(new Dimension(COLS * 20, ROWS * 20));
+        setMinimumSize(new Dimension(Math.min(COLS, 10) * 20, Math.min(ROWS, 20) * 20));
         setBackground(Color.BLACK);
         setFocusable(true);
 
+        // ACTIVE描画ではゲームループがCanvasのBufferStrategyに直接描く
+        if ("ACTIVE".equals(initial.getRenderMode())) {
+            canvas = new GameCanvas(initial.getBufferCount());
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+            perfStats.setCanvas(canvas);
+        }
+
         // キー操作のリスナーを追加（設定に対応）
         addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
                 int keyCode = e.getKeyCode();
+                int action = toInput(keyCode);
                 
-                // 設定されたキーと比較
-                if (keyCode == settings.getKeyLeft()) {
-                    moveMino(-1, 0);
-                } else if (keyCode == settings.getKeyRight()) {
-                    moveMino(1, 0);
-                } else if (keyCode == settings.getKeyDown()) {
-                    moveMino(0, 1);
-                } else if (keyCode == settings.getKeyRotateRight()) {
-                    rotateMinoRight();
-                } else if (keyCode == settings.getKeyRotateLeft()) {
-                    rotateMinoLeft();
+                if (action != 0) {
+                    input.press(action, System.nanoTime());
+                } else if (keyCode == KeyEvent.VK_F2) {
+                    // F2キーで自動プレイを切り替え
+                    botEnabled = !botEnabled;
+                    input.clear();
+                } else if (keyCode == KeyEvent.VK_F3) {
+                    // F3キーで性能オーバーレイを表示/非表示
+                    showPerfOverlay = !showPerfOverlay;
+                    repaint();
                 } else if (keyCode == KeyEvent.VK_ESCAPE) {
                     // ESCキーでタイトルに戻る
                     pauseGame();
@@ -98,249 +130,528 @@ public class GamePanel extends JPanel implements ActionListener {
                         resumeGame();
                     }
                 }
-                
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                int action = toInput(e.getKeyCode());
+                if (action != 0) {
+                    input.release(action);
+                }
+            }
+        });
+
+        // リサイズ時はレイアウトを計算し直して全体を描き直す
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updateLayout();
+                boardLayer.invalidate();
                 repaint();
             }
         });
 
-        // ゲームループ開始（最初は停止状態）
-        timer = new Timer(settings.getGameSpeed(), this);
-        // timer.start(); // 自動開始しない
-        // spawnMino(); // 自動開始しない
+        // ゲームループ（最初は停止状態、描画はEDTで行う）
+        loop = new GameLoop(this::gameTick, this::requestFrame);
+        loop.setTickHistogram(perfStats.getTick());
+        perfStats.setLoop(loop);
+        perfStats.setInput(input);
+        perfStats.setBot(bot);
+
+        // 終了時に計測結果を書き出す（設定でファイルが指定されている場合のみ）
+        String perfLogFile = initial.getPerfLogFile();
+        if (perfLogFile != null && !perfLogFile.isEmpty()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> perfStats.dump(perfLogFile)));
+        }
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (canMove(currentX, currentY + 1)) {
-            currentY++;
-        } else {
-            fixMino();
-            checkLines();
-            spawnMino();
+    // 設定されたキーと比較してエンジンの入力ビットに変換
+    private int toInput(int keyCode) {
+        SettingsSnapshot keys = settings.snapshot(); // 途中で設定が変わっても同じ割り当てで比較する
+        if (keyCode == keys.getKeyLeft()) {
+            return GameEngine.INPUT_LEFT;
+        } else if (keyCode == keys.getKeyRight()) {
+            return GameEngine.INPUT_RIGHT;
+        } else if (keyCode == keys.getKeyDown()) {
+            return GameEngine.INPUT_DOWN;
+        } else if (keyCode == keys.getKeyRotateRight()) {
+            return GameEngine.INPUT_ROTATE_RIGHT;
+        } else if (keyCode == keys.getKeyRotateLeft()) {
+            return GameEngine.INPUT_ROTATE_LEFT;
+        } else if (keyCode == keys.getKeyHardDrop()) {
+            return GameEngine.INPUT_HARD_DROP;
         }
-        repaint();
+        return 0;
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        
-        // ウィンドウサイズに合わせてタイルサイズを動的に計算
-        int panelWidth = getWidth();
-        int panelHeight = getHeight();
-        
-        // アスペクト比を保ちながらタイルサイズを計算
-        int tileWidth = panelWidth / COLS;
-        int tileHeight = panelHeight / ROWS;
-        int dynamicTileSize = Math.min(tileWidth, tileHeight);
-        
-        // ゲームエリアを中央に配置するためのオフセットを計算
-        int offsetX = (panelWidth - (COLS * dynamicTileSize)) / 2;
-        int offsetY = (panelHeight - (ROWS * dynamicTileSize)) / 2;
-
-        // 固定されたブロックを描画
-        for (int y = 0; y < ROWS; y++) {
-            for (int x = 0; x < COLS; x++) {
-                if (board[y][x] > 0) {
-                    g.setColor(getColor(board[y][x]));
-                    g.fillRect(
-                        offsetX + x * dynamicTileSize, 
-                        offsetY + y * dynamicTileSize, 
-                        dynamicTileSize - 1, 
-                        dynamicTileSize - 1
-                    );
+    // 1ティック分の処理（ゲームループのスレッドで実行）
+    private void gameTick() {
+        if (botEnabled) {
+            // 置き場所の探索は時間がかかるので、盤面を写してからエンジンのロックの外で行う
+            boolean search;
+            synchronized (engine) {
+                search = bot.prepare(engine);
+            }
+            if (search) {
+                bot.searchPrepared();
+            }
+        }
+        synchronized (engine) {
+            int inputs = input.poll(System.nanoTime());
+            if (botEnabled) {
+                inputs = bot.nextInputs(engine);
+                botUsed = true;
+            }
+            engine.step(inputs);
+            if (engine.isGameOver()) {
+                recordSession();
+            }
+            if (replay != null) {
+                replay.record(inputs, engine);
+                if (engine.isGameOver()) {
+                    replay.finish(engine);
+                    replay = null;
                 }
             }
         }
+        if (engine.isGameOver()) {
+            loop.pause();
+            SwingUtilities.invokeLater(this::showGameOver);
+        }
+    }
 
-        // 現在落ちているブロックを描画
-        if (minoShape != null) {
-            for (int y = 0; y < minoShape.length; y++) {
-                for (int x = 0; x < minoShape[0].length; x++) {
-                    if (minoShape[y][x] > 0) {
-                        g.setColor(getColor(minoShape[y][x]));
-                        int drawX = offsetX + (currentX + x) * dynamicTileSize;
-                        int drawY = offsetY + (currentY + y) * dynamicTileSize;
-                        g.fillRect(drawX, drawY, dynamicTileSize - 1, dynamicTileSize - 1);
-                    }
-                }
+    // 変更のあったマスだけ再描画を要求（ゲームループのスレッドで実行、repaintはスレッドセーフ）
+    private void requestFrame() {
+        int dirty;
+        synchronized (engine) {
+            dirty = engine.takeDirty(dirtyCells);
+            if (followPiece()) {
+                dirty = GameEngine.DIRTY_ALL;
+            } else if (dirty != GameEngine.DIRTY_ALL) {
+                dirty = addFallingPiece(dirty);
             }
         }
-        
-        // グリッド線を描画
-        g.setColor(new Color(40, 40, 40));
-        for (int i = 0; i <= ROWS; i++) {
-            g.drawLine(
-                offsetX, 
-                offsetY + i * dynamicTileSize, 
-                offsetX + COLS * dynamicTileSize, 
-                offsetY + i * dynamicTileSize
-            );
+        if (canvas != null) {
+            // ACTIVE描画は毎ティック全体を描いてページを切り替える
+            canvas.render(this::paintView);
+            return;
         }
-        for (int i = 0; i <= COLS; i++) {
-            g.drawLine(
-                offsetX + i * dynamicTileSize, 
-                offsetY, 
-                offsetX + i * dynamicTileSize, 
-                offsetY + ROWS * dynamicTileSize
+        if (settings.isFixedResolution()) {
+            // 裏画面を拡大して転送するので、変更のあったマスだけの再描画はできない
+            repaint();
+            return;
+        }
+        if (showPerfOverlay) {
+            repaint(0, 0, OVERLAY_WIDTH, overlayHeight);
+        }
+        if (dirty == GameEngine.DIRTY_ALL) {
+            repaint();
+        } else if (dirty == GameEngine.DIRTY_REGION) {
+            int tileSize = dynamicTileSize;
+            repaint(
+                offsetX + (dirtyCells[0] - viewX) * tileSize,
+                offsetY + (dirtyCells[1] - viewY) * tileSize,
+                (dirtyCells[2] - dirtyCells[0] + 1) * tileSize + 1,
+                (dirtyCells[3] - dirtyCells[1] + 1) * tileSize + 1
             );
         }
     }
 
-    // 右回転
-    private void rotateMinoRight() {
-        int[][] newShape = rotate(true);
-        applyRotation(newShape);
+    // 落下中のミノはティックの間も補間して1マス下まで動くので、今回と前回の範囲を再描画に含める（エンジンをロックした状態で呼ぶ）
+    private int addFallingPiece(int dirty) {
+        if (pieceCellsValid) {
+            dirty = addDirty(dirty, pieceCells[0], pieceCells[1], pieceCells[2], pieceCells[3]);
+        }
+        int[][] minoShape = engine.getMinoShape();
+        pieceCellsValid = minoShape != null && engine.getCurrentY() < engine.getGhostY();
+        if (pieceCellsValid) {
+            int size = minoShape.length;
+            pieceCells[0] = Math.max(0, engine.getCurrentX());
+            pieceCells[1] = Math.max(0, engine.getCurrentY());
+            pieceCells[2] = Math.min(COLS - 1, engine.getCurrentX() + size - 1);
+            pieceCells[3] = Math.min(ROWS - 1, engine.getCurrentY() + size);
+            dirty = addDirty(dirty, pieceCells[0], pieceCells[1], pieceCells[2], pieceCells[3]);
+        }
+        return dirty;
     }
 
-    // 左回転
-    private void rotateMinoLeft() {
-        int[][] newShape = rotate(false);
-        applyRotation(newShape);
+    // 再描画の範囲に[minX, maxX]x[minY, maxY]を加える
+    private int addDirty(int dirty, int minX, int minY, int maxX, int maxY) {
+        if (minX > maxX || minY > maxY) {
+            return dirty;
+        }
+        if (dirty != GameEngine.DIRTY_REGION) {
+            dirtyCells[0] = minX;
+            dirtyCells[1] = minY;
+            dirtyCells[2] = maxX;
+            dirtyCells[3] = maxY;
+            return GameEngine.DIRTY_REGION;
+        }
+        dirtyCells[0] = Math.min(dirtyCells[0], minX);
+        dirtyCells[1] = Math.min(dirtyCells[1], minY);
+        dirtyCells[2] = Math.max(dirtyCells[2], maxX);
+        dirtyCells[3] = Math.max(dirtyCells[3], maxY);
+        return dirty;
     }
 
-    // 行列の入れ替え計算
-    private int[][] rotate(boolean clockwise) {
-        int rows = minoShape.length;
-        int cols = minoShape[0].length;
-        int[][] newShape = new int[cols][rows];
-
-        for (int y = 0; y < rows; y++) {
-            for (int x = 0; x < cols; x++) {
-                if (clockwise) {
-                    newShape[x][rows - 1 - y] = minoShape[y][x];
-                } else {
-                    newShape[cols - 1 - x][y] = minoShape[y][x];
-                }
-            }
+    // ウィンドウサイズに合わせてタイルサイズと配置を計算（リサイズ時だけ）
+    private void updateLayout() {
+        updateLayout(getWidth(), getHeight());
+    }
+
+    private void updateLayout(int panelWidth, int panelHeight) {
+        // アスペクト比を保ちながらタイルサイズを計算
+        int tileWidth = panelWidth / COLS;
+        int tileHeight = panelHeight / ROWS;
+        int tileSize = Math.min(tileWidth, tileHeight);
+
+        // 小さくなりすぎる時は最小サイズで表示範囲だけ描く
+        int minTileSize = settings.getMinTileSize();
+        if (tileSize < minTileSize) {
+            tileSize = minTileSize;
         }
-        return newShape;
+        int cols = Math.max(1, Math.min(COLS, panelWidth / tileSize));
+        int rows = Math.max(1, Math.min(ROWS, panelHeight / tileSize));
+        
+        // ゲームエリアを中央に配置するためのオフセットを計算
+        offsetX = (panelWidth - (cols * tileSize)) / 2;
+        offsetY = (panelHeight - (rows * tileSize)) / 2;
+        dynamicTileSize = tileSize;
+        viewCols = cols;
+        viewRows = rows;
+        viewX = clampView(viewX, cols, COLS);
+        viewY = clampView(viewY, rows, ROWS);
+        layoutWidth = panelWidth;
+        layoutHeight = panelHeight;
     }
 
-    // 回転できるか判定して適用
-    private void applyRotation(int[][] newShape) {
-        int[][] oldShape = minoShape;
-        minoShape = newShape;
+    // 落下中のミノ（と着地位置）が表示範囲に入るようにスクロール。範囲が変わればtrue（エンジンをロックした状態で呼ぶ）
+    private boolean followPiece() {
+        int[][] minoShape = engine.getMinoShape();
+        int cols = viewCols;
+        int rows = viewRows;
+        if (minoShape == null || (cols >= COLS && rows >= ROWS)) {
+            return false;
+        }
+        int size = minoShape.length;
+        int x = scrollToShow(viewX, cols, COLS,
+                engine.getCurrentX() - VIEW_MARGIN, engine.getCurrentX() + size + VIEW_MARGIN);
+        int y = scrollToShow(viewY, rows, ROWS,
+                engine.getCurrentY() - VIEW_MARGIN, engine.getGhostY() + size + VIEW_MARGIN);
+        if (x == viewX && y == viewY) {
+            return false;
+        }
+        viewX = x;
+        viewY = y;
+        return true;
+    }
 
-        if (!canMove(currentX, currentY)) {
-            minoShape = oldShape;
+    // [from, to)が見えるように表示範囲の先頭を動かす（入りきらない時はfrom側を優先）
+    private static int scrollToShow(int view, int visible, int total, int from, int to) {
+        if (to - from > visible) {
+            view = from;
+        } else if (from < view) {
+            view = from;
+        } else if (to > view + visible) {
+            view = to - visible;
         }
+        return clampView(view, visible, total);
     }
 
-    // 移動可能かチェック
-    private boolean canMove(int newX, int newY) {
-        for (int y = 0; y < minoShape.length; y++) {
-            for (int x = 0; x < minoShape[0].length; x++) {
-                if (minoShape[y][x] > 0) {
-                    int targetX = newX + x;
-                    int targetY = newY + y;
+    private static int clampView(int view, int visible, int total) {
+        return Math.max(0, Math.min(view, total - visible));
+    }
 
-                    if (targetX < 0 || targetX >= COLS || targetY >= ROWS) {
-                        return false;
-                    }
-                    if (targetY >= 0 && board[targetY][targetX] > 0) {
-                        return false;
-                    }
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (canvas == null) {
+            paintView(g, getWidth(), getHeight());
+        }
+    }
+
+    // 固定解像度の設定なら裏画面に描いて1回の転送で拡大・縮小、そうでなければ直接描く
+    private void paintView(Graphics g, int width, int height) {
+        SettingsSnapshot current = settings.snapshot();
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (!current.isFixedResolution() || gc == null) {
+            if (backbuffer != null) {
+                backbuffer.flush();
+                backbuffer = null;
+            }
+            paintFrame(g, width, height);
+            return;
+        }
+
+        // 描く量は画面の大きさによらず一定
+        int bufferWidth = Math.max(1, current.getScreenWidth());
+        int bufferHeight = Math.max(1, current.getScreenHeight());
+        double scale = Math.min((double) width / bufferWidth, (double) height / bufferHeight);
+        int drawWidth = (int) Math.round(bufferWidth * scale);
+        int drawHeight = (int) Math.round(bufferHeight * scale);
+        int drawX = (width - drawWidth) / 2;
+        int drawY = (height - drawHeight) / 2;
+        do {
+            if (backbuffer == null || backbuffer.getWidth() != bufferWidth || backbuffer.getHeight() != bufferHeight
+                    || backbuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (backbuffer != null) {
+                    backbuffer.flush();
                 }
+                backbuffer = gc.createCompatibleVolatileImage(bufferWidth, bufferHeight);
             }
+            Graphics2D bg = backbuffer.createGraphics();
+            try {
+                bg.setColor(Color.BLACK);
+                bg.fillRect(0, 0, bufferWidth, bufferHeight);
+                paintFrame(bg, bufferWidth, bufferHeight);
+            } finally {
+                bg.dispose();
+            }
+
+            // アスペクト比を保って転送（余白は黒）
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.drawImage(backbuffer, drawX, drawY, drawWidth, drawHeight, null);
+        } while (backbuffer.contentsLost());
+    }
+
+    // 盤面とミノを描画（Swingの描画とACTIVE描画で共通）
+    private void paintFrame(Graphics g, int width, int height) {
+        long start = System.nanoTime();
+        if (canvas != null) {
+            // BufferStrategyのバッファは毎回全体を描き直す
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+        }
+        if (width != layoutWidth || height != layoutHeight) {
+            updateLayout(width, height);
+        }
+        int tileSize = dynamicTileSize;
+        if (tileSize <= 0) {
+            return;
+        }
+
+        synchronized (engine) {
+            // グリッド線と固定ブロックはキャッシュ画像を転送するだけ
+            boardLayer.paint(g, getGraphicsConfiguration(), engine.getBoard(), engine.getBoardVersion(),
+                    offsetX, offsetY, tileSize, viewX, viewY, viewCols, viewRows);
+            if (viewCols < COLS || viewRows < ROWS) {
+                // スクロール表示中は表示範囲の外にはみ出した部分を描かない
+                Graphics clipped = g.create();
+                clipped.clipRect(offsetX, offsetY, viewCols * tileSize + 1, viewRows * tileSize + 1);
+                paintMino(clipped, tileSize);
+                clipped.dispose();
+            } else {
+                paintMino(g, tileSize);
+            }
+        }
+
+        // 入力から描画までの遅延と描画時間を記録
+        long end = System.nanoTime();
+        long pressed = input.takeAppliedPressNanos();
+        if (pressed != 0) {
+            perfStats.getInputToPaint().record(end - pressed);
+        }
+        perfStats.frame(end, end - start);
+
+        if (showPerfOverlay) {
+            paintPerfOverlay(g, end);
         }
-        return true;
     }
 
-    // 移動処理
-    private void moveMino(int dx, int dy) {
-        if (canMove(currentX + dx, currentY + dy)) {
-            currentX += dx;
-            currentY += dy;
+    // 性能オーバーレイ（FPSと各ヒストグラムのp50/p99/max）
+    private void paintPerfOverlay(Graphics g, long now) {
+        String[] lines = perfStats.overlayLines(now);
+        int height = lines.length * OVERLAY_LINE_HEIGHT + 10;
+        overlayHeight = height;
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(0, 0, OVERLAY_WIDTH, height);
+        g.setFont(OVERLAY_FONT);
+        g.setColor(Color.GREEN);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], 8, 16 + i * OVERLAY_LINE_HEIGHT);
         }
     }
 
-    // ブロックを固定
-    private void fixMino() {
+    // 落下中のミノを描画（エンジンをロックした状態で呼ぶ）
+    private void paintMino(Graphics g, int tileSize) {
+        int[][] minoShape = engine.getMinoShape();
+        if (minoShape == null) {
+            return;
+        }
+        int currentX = engine.getCurrentX();
+        int currentY = engine.getCurrentY();
+        int ghostY = engine.getGhostY();
+
+        // 着地位置の影（枠だけ）
+        if (ghostY > currentY) {
+            g.setColor(TileAtlas.colorOf(Tetromino.color(engine.getMinoType())));
+            for (int y = 0; y < minoShape.length; y++) {
+                for (int x = 0; x < minoShape[0].length; x++) {
+                    if (minoShape[y][x] > 0) {
+                        g.drawRect(offsetX + (currentX + x - viewX) * tileSize + 1,
+                                offsetY + (ghostY + y - viewY) * tileSize + 1,
+                                tileSize - 2, tileSize - 2);
+                    }
+                }
+            }
+        }
+
+        // 次のティックまでの経過分だけ落下位置を補間（床に着いているときは補間しない）
+        int fallOffset = 0;
+        if (currentY < ghostY) {
+            double progress = engine.getGravityProgress() + loop.getAlpha() * engine.getGravity();
+            fallOffset = (int) (Math.min(progress / GameEngine.GRAVITY_ONE, 1.0) * tileSize);
+        }
+
+        TileAtlas atlas = TileAtlas.forSize(tileSize);
         for (int y = 0; y < minoShape.length; y++) {
             for (int x = 0; x < minoShape[0].length; x++) {
                 if (minoShape[y][x] > 0) {
-                    board[currentY + y][currentX + x] = minoShape[y][x];
+                    int drawX = offsetX + (currentX + x - viewX) * tileSize;
+                    int drawY = offsetY + (currentY + y - viewY) * tileSize + fallOffset;
+                    atlas.draw(g, minoShape[y][x], drawX, drawY);
                 }
             }
         }
     }
 
-    // ラインチェック
-    private void checkLines() {
-        for (int y = ROWS - 1; y >= 0; y--) {
-            boolean full = true;
-            for (int x = 0; x < COLS; x++) {
-                if (board[y][x] == 0) {
-                    full = false;
-                    break;
-                }
-            }
-            if (full) {
-                for (int row = y; row > 0; row--) {
-                    System.arraycopy(board[row - 1], 0, board[row], 0, COLS);
-                }
-                board[0] = new int[COLS];
-                y++;
+    // ゲームオーバー時の確認
+    private void showGameOver() {
+        int result = JOptionPane.showConfirmDialog(
+            this,
+            "Game Over!\nもう一度プレイしますか？",
+            "ゲームオーバー",
+            JOptionPane.YES_NO_OPTION
+        );
+        
+        if (result == JOptionPane.YES_OPTION) {
+            resetGame();
+            loop.resume();
+        } else {
+            cardLayout.show(mainPanel, "title");
+        }
+    }
+    
+    // 変わった設定をプレイ中のゲームに反映（設定を変えたスレッドで実行）
+    // 落下速度はリプレイを再現できるように次のゲームから、盤面の大きさと描画方式は再起動後に反映
+    private void applySettings(SettingsSnapshot old, SettingsSnapshot next) {
+        if (old.getDas() != next.getDas() || old.getArr() != next.getArr()) {
+            synchronized (engine) {
+                input.setTiming(next.getDas(), next.getArr(), GameLoop.TICK_RATE);
             }
         }
+        if (old.getMinTileSize() != next.getMinTileSize() || old.isFixedResolution() != next.isFixedResolution()
+                || old.getScreenWidth() != next.getScreenWidth() || old.getScreenHeight() != next.getScreenHeight()) {
+            layoutWidth = -1; // 配置を計算し直す
+            repaint();
+        }
     }
 
-    // 新しいミノを生成
-    private void spawnMino() {
-        Random rand = new Random();
-        int index = rand.nextInt(MINOS.length);
-        minoShape = MINOS[index];
-
-        currentX = COLS / 2 - 1;
-        currentY = 0;
-
-        if (!canMove(currentX, currentY)) {
-            timer.stop();
-            int result = JOptionPane.showConfirmDialog(
-                this,
-                "Game Over!\nもう一度プレイしますか？",
-                "ゲームオーバー",
-                JOptionPane.YES_NO_OPTION
-            );
-            
-            if (result == JOptionPane.YES_OPTION) {
-                resetGame();
-                timer.start();
-            } else {
-                cardLayout.show(mainPanel, "title");
-            }
+    // ゲームをリセット
+    void resetGame() {
+        SettingsSnapshot current = settings.snapshot(); // 1ゲームの設定は開始時の1つのスナップショットから取る
+        synchronized (engine) {
+            // 途中でやめたゲームも1回のプレイとして数え、リプレイは今の盤面と得点で閉じる（リセットより前に）
+            recordSession();
+            finishReplay();
+            input.clear();
+            input.setTiming(current.getDas(), current.getArr(), GameLoop.TICK_RATE);
+            engine.setGravity(GameEngine.gravityFromMillis(current.getGameSpeed(), GameLoop.TICK_RATE));
+            PieceGenerator generator = createGenerator(current);
+            engine.reset(generator);
+            sessionRecorded = false;
+            botUsed = false;
+            bot.reset();
+            startReplay(generator, current);
         }
     }
+
+    // 終わったゲームをスコアに記録（キューに入れるだけ、engineのロック中に呼ぶ）
+    private void recordSession() {
+        if (scores == null || sessionRecorded || botUsed || engine.getPiecesPlaced() == 0) {
+            return;
+        }
+        sessionRecorded = true;
+        PieceGenerator generator = engine.getGenerator();
+        scores.submit(new ScoreRecord(System.currentTimeMillis(), engine.getScore(), engine.getLinesCleared(),
+                engine.getPiecesPlaced(), engine.getTickCount(), generator != null ? generator.getSeed() : 0));
+    }
+
+    // 記録中のリプレイを今のエンジンの状態で閉じる（engineのロック中、リセットより前に呼ぶ）
+    private void finishReplay() {
+        if (replay != null) {
+            replay.finish(engine);
+            replay = null;
+        }
+    }
+
+    // 新しいゲームの記録を始める（engineのロック中に呼ぶ）
+    private void startReplay(PieceGenerator generator, SettingsSnapshot current) {
+        String dir = current.getReplayDir();
+        if (dir == null || dir.isEmpty()) {
+            return;
+        }
+        int[] keys = {
+            current.getKeyLeft(), current.getKeyRight(), current.getKeyDown(),
+            current.getKeyRotateRight(), current.getKeyRotateLeft(), current.getKeyHardDrop()
+        };
+        Replay header = new Replay(generator.getSeed(), generator.getMode(), generator.getPreviewCount(),
+                COLS, ROWS, engine.getGravity(), current.getGameSpeed(), current.getDas(), current.getArr(), keys);
+        replay = new ReplayWriter(Paths.get(dir, LocalDateTime.now().format(REPLAY_NAME)), header);
+        if (!replayHookAdded) {
+            // ゲームの途中で終了しても、末尾と索引を書いて読めるファイルにする
+            Runtime.getRuntime().addShutdownHook(new Thread(this::finishReplayOnExit));
+            replayHookAdded = true;
+        }
+    }
+
+    // 記録中のリプレイを閉じて、書き終えるまで少し待つ（終了時）
+    private void finishReplayOnExit() {
+        synchronized (engine) {
+            finishReplay();
+        }
+        ReplayWriter.awaitWrites(TimeUnit.SECONDS.toMillis(2));
+    }
     
-    // ゲームをリセット
-    private void resetGame() {
-        board = new int[ROWS][COLS];
-        currentX = COLS / 2 - 1;
-        currentY = 0;
-        spawnMino();
+    // ベンチマーク用
+    GameEngine getEngine() {
+        return engine;
+    }
+    
+    // 設定に従ってミノの生成器を作成
+    private PieceGenerator createGenerator(SettingsSnapshot current) {
+        long seed = current.getRandomSeed();
+        if (seed == 0) {
+            seed = System.nanoTime();
+        }
+        PieceGenerator.Mode mode;
+        try {
+            mode = PieceGenerator.Mode.valueOf(current.getRandomizer());
+        } catch (IllegalArgumentException e) {
+            mode = PieceGenerator.Mode.BAG7;
+        }
+        return new PieceGenerator(seed, mode, PREVIEW_COUNT);
     }
     
     // ゲームを一時停止
     public void pauseGame() {
-        if (timer != null) {
-            timer.stop();
-        }
+        loop.pause();
+        input.clear();
     }
     
     // ゲームを再開
     public void resumeGame() {
-        if (timer != null) {
-            timer.start();
-        }
+        loop.resume();
     }
     
     // ゲームを開始
     public void startGame() {
         resetGame();
-        if (timer != null) {
-            timer.start();
-        }
+        loop.start();
+        loop.resume();
         requestFocus();
     }
 }
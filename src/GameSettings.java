@@ -1,40 +1,75 @@
+import javax.swing.SwingUtilities;
 import java.awt.event.KeyEvent;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class GameSettings {
     // シングルトンパターン
     private static GameSettings instance;
+
+    // --- ファイルの保存と監視 ---
+    private static final Path SETTINGS_FILE = Paths.get("tetris_settings.properties");
+    private static final long SAVE_DELAY_MILLIS = 300;   // この間に続いた保存は最後の1回だけ書く
+    private static final long RELOAD_DELAY_MILLIS = 200; // 外部エディタの連続した書き込みをまとめる
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "SettingsIO");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> pendingSave;   // thisでロック
+    private ScheduledFuture<?> pendingReload; // thisでロック
+    private volatile byte[] lastContent;      // 最後に読み書きした内容（自分の保存による変更通知を無視する）
+    private final boolean persistent;         // falseならファイルを読み書き・監視しない（ベンチマーク用）
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    
+    // 今の設定（変更のたびに新しいスナップショットに差し替える）
+    private volatile SettingsSnapshot current = SettingsSnapshot.DEFAULTS;
     
-    // キー設定
-    private int keyLeft = KeyEvent.VK_LEFT;
-    private int keyRight = KeyEvent.VK_RIGHT;
-    private int keyDown = KeyEvent.VK_DOWN;
-    private int keySoftDrop = KeyEvent.VK_SPACE;  // 今後の拡張用
-    private int keyRotateRight = KeyEvent.VK_X;
-    private int keyRotateLeft = KeyEvent.VK_Z;
-    private int keyHold = KeyEvent.VK_C;  // 今後の拡張用（ホールド機能）
-    
-    // 音量設定（0.0～1.0）
-    private float volumeMaster = 0.0f;  // 初期はミュート
-    private float volumeBGM = 0.7f;
-    private float volumeSE = 0.8f;
-    
-    // 画質設定
-    private int tileSize = 30;  // ブロックのサイズ
-    private int boardCols = 10; // 横のマス数
-    private int boardRows = 20; // 縦のマス数
-    private int screenWidth = 1920;  // 画面の幅
-    private int screenHeight = 1080; // 画面の高さ
-    
-    // ゲーム設定
-    private int gameSpeed = 500; // 落下速度（ミリ秒）
+    // 設定が変わった時の通知（値が実際に変わった時だけ、変更したスレッドで呼ばれる。
+    // 画面での変更と設定ファイルの再読み込みはどちらもEDT）
+    @FunctionalInterface
+    public interface Listener {
+        void settingsChanged(SettingsSnapshot oldSettings, SettingsSnapshot newSettings);
+    }
     
     private GameSettings() {
+        persistent = true;
         loadSettings();
+        startWatcher();
+        // 終了時はまだ書いていない保存を済ませてから止める
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            io.shutdown();
+            try {
+                io.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+    
+    // ファイルを使わない固定の設定（保存しても書き込まず、外部の変更も読まない）
+    private GameSettings(SettingsSnapshot fixed) {
+        persistent = false;
+        current = fixed;
+    }
+    
+    static GameSettings fixed(SettingsSnapshot snapshot) {
+        return new GameSettings(snapshot);
     }
     
-    public static GameSettings getInstance() {
+    public static synchronized GameSettings getInstance() {
         if (instance == null) {
             instance = new GameSettings();
         }
@@ -43,123 +78,274 @@ public class GameSettings {
     
     // 設定をファイルから読み込む
     public void loadSettings() {
-        Properties props = new Properties();
-        try (FileInputStream fis = new FileInputStream("tetris_settings.properties")) {
-            props.load(fis);
-            
-            keyLeft = Integer.parseInt(props.getProperty("keyLeft", String.valueOf(KeyEvent.VK_LEFT)));
-            keyRight = Integer.parseInt(props.getProperty("keyRight", String.valueOf(KeyEvent.VK_RIGHT)));
-            keyDown = Integer.parseInt(props.getProperty("keyDown", String.valueOf(KeyEvent.VK_DOWN)));
-            keySoftDrop = Integer.parseInt(props.getProperty("keySoftDrop", String.valueOf(KeyEvent.VK_SPACE)));
-            keyRotateRight = Integer.parseInt(props.getProperty("keyRotateRight", String.valueOf(KeyEvent.VK_X)));
-            keyRotateLeft = Integer.parseInt(props.getProperty("keyRotateLeft", String.valueOf(KeyEvent.VK_Z)));
-            keyHold = Integer.parseInt(props.getProperty("keyHold", String.valueOf(KeyEvent.VK_C)));
-            
-            volumeMaster = Float.parseFloat(props.getProperty("volumeMaster", "0.0"));
-            volumeBGM = Float.parseFloat(props.getProperty("volumeBGM", "0.7"));
-            volumeSE = Float.parseFloat(props.getProperty("volumeSE", "0.8"));
-            
-            tileSize = Integer.parseInt(props.getProperty("tileSize", "30"));
-            boardCols = Integer.parseInt(props.getProperty("boardCols", "10"));
-            boardRows = Integer.parseInt(props.getProperty("boardRows", "20"));
-            gameSpeed = Integer.parseInt(props.getProperty("gameSpeed", "500"));
-            screenWidth = Integer.parseInt(props.getProperty("screenWidth", "1920"));
-            screenHeight = Integer.parseInt(props.getProperty("screenHeight", "1080"));
-            
+        if (!persistent) {
+            return;
+        }
+        try {
+            byte[] content = Files.readAllBytes(SETTINGS_FILE);
+            SettingsSnapshot loaded = SettingsSnapshot.fromProperties(parse(content));
+            lastContent = content;
+            publish(loaded);
         } catch (IOException e) {
             // ファイルが無い場合はデフォルト値を使用
             System.out.println("設定ファイルが見つかりません。デフォルト設定を使用します。");
+        } catch (NumberFormatException e) {
+            System.err.println("設定ファイルの読み込みに失敗しました: " + e.getMessage());
         }
     }
     
-    // 設定をファイルに保存
-    public void saveSettings() {
+    private static Properties parse(byte[] content) throws IOException {
         Properties props = new Properties();
-        
-        props.setProperty("keyLeft", String.valueOf(keyLeft));
-        props.setProperty("keyRight", String.valueOf(keyRight));
-        props.setProperty("keyDown", String.valueOf(keyDown));
-        props.setProperty("keySoftDrop", String.valueOf(keySoftDrop));
-        props.setProperty("keyRotateRight", String.valueOf(keyRotateRight));
-        props.setProperty("keyRotateLeft", String.valueOf(keyRotateLeft));
-        props.setProperty("keyHold", String.valueOf(keyHold));
-        
-        props.setProperty("volumeMaster", String.valueOf(volumeMaster));
-        props.setProperty("volumeBGM", String.valueOf(volumeBGM));
-        props.setProperty("volumeSE", String.valueOf(volumeSE));
-        
-        props.setProperty("tileSize", String.valueOf(tileSize));
-        props.setProperty("boardCols", String.valueOf(boardCols));
-        props.setProperty("boardRows", String.valueOf(boardRows));
-        props.setProperty("gameSpeed", String.valueOf(gameSpeed));
-        props.setProperty("screenWidth", String.valueOf(screenWidth));
-        props.setProperty("screenHeight", String.valueOf(screenHeight));
-        
-        try (FileOutputStream fos = new FileOutputStream("tetris_settings.properties")) {
-            props.store(fos, "Tetris Game Settings");
+        props.load(new ByteArrayInputStream(content));
+        return props;
+    }
+    
+    // 今の設定を返す（同じスナップショットを読む限り値は揃っていて、ロックも割り当ても無い）
+    public SettingsSnapshot snapshot() {
+        return current;
+    }
+    
+    // 今の値を複製して一部を変え、差し替える（コピーオンライト）
+    private void update(Consumer<SettingsSnapshot.Builder> change) {
+        SettingsSnapshot old;
+        SettingsSnapshot next;
+        synchronized (this) {
+            old = current;
+            SettingsSnapshot.Builder builder = old.toBuilder();
+            change.accept(builder);
+            next = builder.build();
+            if (old.equals(next)) {
+                return;
+            }
+            current = next;
+        }
+        notifyListeners(old, next);
+    }
+    
+    // 設定を丸ごと差し替える（読み込み時）
+    private void publish(SettingsSnapshot next) {
+        SettingsSnapshot old;
+        synchronized (this) {
+            old = current;
+            if (old.equals(next)) {
+                return;
+            }
+            current = next;
+        }
+        notifyListeners(old, next);
+    }
+    
+    private void notifyListeners(SettingsSnapshot old, SettingsSnapshot next) {
+        for (Listener listener : listeners) {
+            listener.settingsChanged(old, next);
+        }
+    }
+    
+    // 設定をファイルに保存（今の値を控えて裏のスレッドで書くので、呼び出し側はディスクを待たない）
+    public void saveSettings() {
+        if (!persistent) {
+            return;
+        }
+        SettingsSnapshot snapshot = current;
+        synchronized (this) {
+            if (pendingSave != null) {
+                pendingSave.cancel(false);
+            }
+            try {
+                pendingSave = io.schedule(() -> writeFile(snapshot.toProperties()),
+                        SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                writeFile(snapshot.toProperties()); // 終了処理中
+            }
+        }
+    }
+    
+    // 一時ファイルに書いてから置き換える（途中で落ちても元のファイルは壊れない）
+    private void writeFile(Properties props) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            props.store(out, "Tetris Game Settings");
+            byte[] content = out.toByteArray();
+            lastContent = content;
+            
+            Path temp = SETTINGS_FILE.resolveSibling(SETTINGS_FILE.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, SETTINGS_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, SETTINGS_FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
             System.out.println("設定を保存しました。");
         } catch (IOException e) {
             System.err.println("設定の保存に失敗しました: " + e.getMessage());
         }
     }
     
+    // 設定ファイルのあるフォルダを監視して、外部での書き換えを読み込み直す
+    private void startWatcher() {
+        Path file = SETTINGS_FILE.toAbsolutePath();
+        Path dir = file.getParent();
+        Path name = file.getFileName();
+        Thread watcher = new Thread(() -> {
+            try (WatchService watchService = dir.getFileSystem().newWatchService()) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        // OVERFLOWは何が変わったか分からないので読み直す
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                            changed = true;
+                        }
+                    }
+                    if (changed) {
+                        scheduleReload();
+                    }
+                    if (!key.reset()) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("設定ファイルの監視に失敗しました: " + e.getMessage());
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // 終了
+            }
+        }, "SettingsWatcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+    
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        try {
+            pendingReload = io.schedule(this::reload, RELOAD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 終了処理中
+        }
+    }
+    
+    // 外部で変更された設定を読み込み、EDTで差し替える（SettingsIOスレッドで実行）
+    private void reload() {
+        byte[] content;
+        SettingsSnapshot loaded;
+        try {
+            content = Files.readAllBytes(SETTINGS_FILE);
+            if (Arrays.equals(content, lastContent)) {
+                return; // 自分で保存した内容
+            }
+            loaded = SettingsSnapshot.fromProperties(parse(content));
+        } catch (NoSuchFileException e) {
+            return; // 置き換えの途中
+        } catch (IOException | NumberFormatException e) {
+            // 書きかけの値などは無視して今の設定のまま
+            System.err.println("設定ファイルの読み込みに失敗しました: " + e.getMessage());
+            return;
+        }
+        lastContent = content;
+        SwingUtilities.invokeLater(() -> {
+            System.out.println("設定ファイルの変更を読み込みました。");
+            publish(loaded);
+        });
+    }
+    
+    // 設定が変わった時に呼ばれる処理を登録
+    public void addChangeListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
     // キーコードを文字列に変換
     public static String keyCodeToString(int keyCode) {
         return KeyEvent.getKeyText(keyCode);
     }
     
-    // ゲッター・セッター
-    public int getKeyLeft() { return keyLeft; }
-    public void setKeyLeft(int key) { this.keyLeft = key; }
+    // ゲッター・セッター（1つずつ読むと途中で別のスナップショットに変わりうるので、まとめて読む時はsnapshot()）
+    public int getKeyLeft() { return current.getKeyLeft(); }
+    public void setKeyLeft(int key) { update(b -> b.keyLeft = key); }
     
-    public int getKeyRight() { return keyRight; }
-    public void setKeyRight(int key) { this.keyRight = key; }
+    public int getKeyRight() { return current.getKeyRight(); }
+    public void setKeyRight(int key) { update(b -> b.keyRight = key); }
     
-    public int getKeyDown() { return keyDown; }
-    public void setKeyDown(int key) { this.keyDown = key; }
+    public int getKeyDown() { return current.getKeyDown(); }
+    public void setKeyDown(int key) { update(b -> b.keyDown = key); }
     
-    public int getKeySoftDrop() { return keySoftDrop; }
-    public void setKeySoftDrop(int key) { this.keySoftDrop = key; }
+    public int getKeyHardDrop() { return current.getKeyHardDrop(); }
+    public void setKeyHardDrop(int key) { update(b -> b.keyHardDrop = key); }
     
-    public int getKeyRotateRight() { return keyRotateRight; }
-    public void setKeyRotateRight(int key) { this.keyRotateRight = key; }
+    public int getKeyRotateRight() { return current.getKeyRotateRight(); }
+    public void setKeyRotateRight(int key) { update(b -> b.keyRotateRight = key); }
     
-    public int getKeyRotateLeft() { return keyRotateLeft; }
-    public void setKeyRotateLeft(int key) { this.keyRotateLeft = key; }
+    public int getKeyRotateLeft() { return current.getKeyRotateLeft(); }
+    public void setKeyRotateLeft(int key) { update(b -> b.keyRotateLeft = key); }
     
-    public int getKeyHold() { return keyHold; }
-    public void setKeyHold(int key) { this.keyHold = key; }
+    public int getKeyHold() { return current.getKeyHold(); }
+    public void setKeyHold(int key) { update(b -> b.keyHold = key); }
     
-    public float getVolumeMaster() { return volumeMaster; }
-    public void setVolumeMaster(float volume) { 
-        this.volumeMaster = Math.max(0.0f, Math.min(1.0f, volume)); 
-    }
+    public int getDas() { return current.getDas(); }
+    public void setDas(int millis) { update(b -> b.das = millis); }
     
-    public float getVolumeBGM() { return volumeBGM; }
-    public void setVolumeBGM(float volume) { 
-        this.volumeBGM = Math.max(0.0f, Math.min(1.0f, volume)); 
-    }
+    public int getArr() { return current.getArr(); }
+    public void setArr(int millis) { update(b -> b.arr = millis); }
     
-    public float getVolumeSE() { return volumeSE; }
-    public void setVolumeSE(float volume) { 
-        this.volumeSE = Math.max(0.0f, Math.min(1.0f, volume)); 
-    }
+    public float getVolumeMaster() { return current.getVolumeMaster(); }
+    public void setVolumeMaster(float volume) { update(b -> b.volumeMaster = volume); }
+    
+    public float getVolumeBGM() { return current.getVolumeBGM(); }
+    public void setVolumeBGM(float volume) { update(b -> b.volumeBGM = volume); }
+    
+    public float getVolumeSE() { return current.getVolumeSE(); }
+    public void setVolumeSE(float volume) { update(b -> b.volumeSE = volume); }
+    
+    public int getTileSize() { return current.getTileSize(); }
+    public void setTileSize(int size) { update(b -> b.tileSize = size); }
+    
+    public int getBoardCols() { return current.getBoardCols(); }
+    public void setBoardCols(int cols) { update(b -> b.boardCols = cols); }
+    
+    public int getBoardRows() { return current.getBoardRows(); }
+    public void setBoardRows(int rows) { update(b -> b.boardRows = rows); }
+    
+    public int getMinTileSize() { return current.getMinTileSize(); }
+    public void setMinTileSize(int size) { update(b -> b.minTileSize = size); }
+    
+    public int getGameSpeed() { return current.getGameSpeed(); }
+    public void setGameSpeed(int speed) { update(b -> b.gameSpeed = speed); }
+    
+    public int getScreenWidth() { return current.getScreenWidth(); }
+    public void setScreenWidth(int width) { update(b -> b.screenWidth = width); }
+    
+    public int getScreenHeight() { return current.getScreenHeight(); }
+    public void setScreenHeight(int height) { update(b -> b.screenHeight = height); }
+    
+    public boolean isFixedResolution() { return current.isFixedResolution(); }
+    public void setFixedResolution(boolean fixed) { update(b -> b.fixedResolution = fixed); }
+    
+    public String getRenderMode() { return current.getRenderMode(); }
+    public void setRenderMode(String mode) { update(b -> b.renderMode = mode); }
     
-    public int getTileSize() { return tileSize; }
-    public void setTileSize(int size) { this.tileSize = size; }
+    public int getBufferCount() { return current.getBufferCount(); }
+    public void setBufferCount(int count) { update(b -> b.bufferCount = count); }
     
-    public int getBoardCols() { return boardCols; }
-    public void setBoardCols(int cols) { this.boardCols = cols; }
+    public String getPerfLogFile() { return current.getPerfLogFile(); }
+    public void setPerfLogFile(String path) { update(b -> b.perfLogFile = path); }
     
-    public int getBoardRows() { return boardRows; }
-    public void setBoardRows(int rows) { this.boardRows = rows; }
+    public String getUiTheme() { return current.getUiTheme(); }
+    public void setUiTheme(String theme) { update(b -> b.uiTheme = theme); }
     
-    public int getGameSpeed() { return gameSpeed; }
-    public void setGameSpeed(int speed) { this.gameSpeed = speed; }
+    public String getRandomizer() { return current.getRandomizer(); }
+    public void setRandomizer(String randomizer) { update(b -> b.randomizer = randomizer); }
     
-    public int getScreenWidth() { return screenWidth; }
-    public void setScreenWidth(int width) { this.screenWidth = width; }
+    public long getRandomSeed() { return current.getRandomSeed(); }
+    public void setRandomSeed(long seed) { update(b -> b.randomSeed = seed); }
     
-    public int getScreenHeight() { return screenHeight; }
-    public void setScreenHeight(int height) { this.screenHeight = height; }
+    public String getReplayDir() { return current.getReplayDir(); }
+    public void setReplayDir(String dir) { update(b -> b.replayDir = dir); }
 }
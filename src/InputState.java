@@ -0,0 +1,127 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class InputState {
+    // 押しっぱなしで繰り返す入力（回転とハードドロップは押した瞬間だけ）
+    private static final int REPEATABLE =
+            GameEngine.INPUT_LEFT | GameEngine.INPUT_RIGHT | GameEngine.INPUT_DOWN;
+    private static final int ACTIONS = 6; // GameEngine.INPUT_* の数
+    private static final int BUFFER = 8;  // キーごとに溜めておける押下の数（2の累乗）
+
+    // --- EDTから書き込む状態 ---
+    private final AtomicInteger held = new AtomicInteger(); // 押されているキー
+    private final AtomicIntegerArray pressWrites = new AtomicIntegerArray(ACTIONS); // キーごとの押下回数
+    private final AtomicLongArray pressStamps = new AtomicLongArray(ACTIONS * BUFFER); // 押された時刻のリング
+
+    // --- ゲームループ側だけが触る状態 ---
+    private final int[] pressReads = new int[ACTIONS]; // 処理済みの押下回数
+    private int dasTicks = 10; // 繰り返し開始までのティック数
+    private int arrTicks = 3;  // 繰り返し間隔のティック数
+    private final int[] heldTicks = new int[ACTIONS];
+    private int lastHorizontal = GameEngine.INPUT_LEFT; // 左右同時押しの時は後から押した方を優先
+
+    // --- 入力遅延の計測（押してから状態に反映されるまで） ---
+    private volatile long latencyCount;
+    private volatile long latencyTotalNanos;
+    private volatile long latencyMaxNanos;
+    private final AtomicLong appliedPressNanos = new AtomicLong(); // 反映済みでまだ描画されていない最古の押下時刻
+
+    // DAS/ARRをミリ秒で設定
+    public void setTiming(int dasMillis, int arrMillis, int tickRate) {
+        dasTicks = Math.max(1, (dasMillis * tickRate + 999) / 1000);
+        arrTicks = Math.max(1, (arrMillis * tickRate + 999) / 1000);
+    }
+
+    // キーが押された（EDTから呼ぶ）。OSのキーリピートは無視する
+    public void press(int input, long nanos) {
+        int prev = held.getAndAccumulate(input, (a, b) -> a | b);
+        if ((prev & input) != 0) {
+            return;
+        }
+        // 時刻を書いてから回数を進める（ループ側は回数を見てから時刻を読む）
+        int i = Integer.numberOfTrailingZeros(input);
+        int count = pressWrites.get(i);
+        pressStamps.set(i * BUFFER + (count & (BUFFER - 1)), nanos);
+        pressWrites.set(i, count + 1);
+    }
+
+    // キーが離された（EDTから呼ぶ）
+    public void release(int input) {
+        held.getAndAccumulate(input, (a, b) -> a & ~b);
+    }
+
+    // 全ての入力を破棄
+    public void clear() {
+        held.set(0);
+        for (int i = 0; i < ACTIONS; i++) {
+            pressReads[i] = pressWrites.get(i);
+            heldTicks[i] = 0;
+        }
+    }
+
+    // このティックで適用する入力を取得（ゲームループから毎ティック呼ぶ）
+    // ティックの間に同じキーが複数回押された場合は、1ティックに1回ずつ順に反映する
+    public int poll(long nowNanos) {
+        int holding = held.get();
+        int result = 0;
+
+        for (int i = 0; i < ACTIONS; i++) {
+            int bit = 1 << i;
+            int writes = pressWrites.get(i);
+            if (writes - pressReads[i] > BUFFER) {
+                // 溢れた古い押下は捨てる
+                pressReads[i] = writes - BUFFER;
+            }
+            if (pressReads[i] != writes) {
+                // 押した瞬間は必ず1回反映
+                result |= bit;
+                heldTicks[i] = 0;
+                long stamp = pressStamps.get(i * BUFFER + (pressReads[i] & (BUFFER - 1)));
+                recordLatency(nowNanos - stamp);
+                appliedPressNanos.compareAndSet(0, stamp);
+                pressReads[i]++;
+                if ((bit & (GameEngine.INPUT_LEFT | GameEngine.INPUT_RIGHT)) != 0) {
+                    lastHorizontal = bit;
+                }
+            } else if ((holding & bit) != 0 && (bit & REPEATABLE) != 0) {
+                // 押しっぱなし: DAS経過後はARR間隔で繰り返す
+                int t = ++heldTicks[i];
+                if (t >= dasTicks && (t - dasTicks) % arrTicks == 0) {
+                    result |= bit;
+                }
+            } else {
+                heldTicks[i] = 0;
+            }
+        }
+
+        // 左右が両方入っていたら後から押した方だけ残す
+        int both = GameEngine.INPUT_LEFT | GameEngine.INPUT_RIGHT;
+        if ((result & both) == both) {
+            result &= ~both | lastHorizontal;
+        }
+        return result;
+    }
+
+    private void recordLatency(long nanos) {
+        latencyCount++;
+        latencyTotalNanos += nanos;
+        if (nanos > latencyMaxNanos) {
+            latencyMaxNanos = nanos;
+        }
+    }
+
+    // 反映済みの押下のうち最古の時刻を取り出す（描画時に呼んで入力から描画までの遅延を測る。無ければ0）
+    public long takeAppliedPressNanos() {
+        return appliedPressNanos.getAndSet(0);
+    }
+
+    // ゲッター
+    public long getLatencyCount() { return latencyCount; }
+    public long getLatencyMaxNanos() { return latencyMaxNanos; }
+    public long getLatencyAverageNanos() {
+        long count = latencyCount;
+        return count == 0 ? 0 : latencyTotalNanos / count;
+    }
+}
@@ -0,0 +1,84 @@
+public class LatencyHistogram {
+    // マイクロ秒単位の対数バケット（2の累乗ごとに8分割、誤差12.5%以内）
+    private static final int LINEAR = 16;
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = LINEAR + (63 - 4) * SUB;
+
+    private final String name;
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long maxNanos;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    // 1サンプル記録（割り当てなし。書き込みは1スレッドから行う）
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[indexOf(nanos / 1000)]++;
+        count++;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    // 指定パーセンタイルの値（ナノ秒、バケットの上限値）
+    public long percentileNanos(double percentile) {
+        long total = count;
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundMicros(i) * 1000, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return count; }
+    public long getMaxNanos() { return maxNanos; }
+
+    // 空でないバケットを「上限マイクロ秒:件数」で並べる（オフライン比較用）
+    public void appendBuckets(StringBuilder sb) {
+        boolean first = true;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                if (!first) {
+                    sb.append(' ');
+                }
+                sb.append(upperBoundMicros(i)).append(':').append(counts[i]);
+                first = false;
+            }
+        }
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(micros); // 4以上
+        int sub = (int) (micros >>> (exp - SUB_BITS)) & (SUB - 1);
+        return Math.min(BUCKETS - 1, LINEAR + (exp - 4) * SUB + sub);
+    }
+
+    // バケットの上限（マイクロ秒、この値未満）。記録はマイクロ秒に切り捨てるので、
+    // 線形のバケットiには[i, i+1)マイクロ秒の値が入る
+    private static long upperBoundMicros(int index) {
+        if (index < LINEAR) {
+            return index + 1;
+        }
+        int exp = (index - LINEAR) / SUB + 4;
+        int sub = (index - LINEAR) % SUB;
+        long lower = (long) (SUB + sub) << (exp - SUB_BITS);
+        return lower + (1L << (exp - SUB_BITS));
+    }
+}
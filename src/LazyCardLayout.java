@@ -0,0 +1,40 @@
+import java.awt.CardLayout;
+import java.awt.Component;
+import java.awt.Container;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// 画面を最初に表示する時に作るCardLayout（起動時にすべての画面を作らない）
+public class LazyCardLayout extends CardLayout {
+    private final Map<String, Supplier<? extends Component>> factories = new HashMap<>();
+    private final Map<String, Component> cards = new HashMap<>();
+
+    // 画面の作り方を登録
+    public void register(String name, Supplier<? extends Component> factory) {
+        factories.put(name, factory);
+    }
+
+    // まだ作っていなければ作ってparentに追加し、その画面を返す（EDTで呼ぶ）
+    public Component prepare(Container parent, String name) {
+        Component card = cards.get(name);
+        if (card == null) {
+            Supplier<? extends Component> factory = factories.remove(name);
+            if (factory == null) {
+                return null;
+            }
+            long start = System.nanoTime();
+            card = factory.get();
+            cards.put(name, card);
+            parent.add(card, name);
+            StartupTimer.phase("画面作成 " + name, start);
+        }
+        return card;
+    }
+
+    @Override
+    public void show(Container parent, String name) {
+        prepare(parent, name);
+        super.show(parent, name);
+    }
+}
@@ -0,0 +1,138 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+// ランキング画面（ScoreStoreのキャッシュを表示するだけでディスクは読まない）
+public class LeaderboardPanel extends JPanel {
+    private static final int SHOW_COUNT = 10; // 表示する順位の数
+    private static final String[] HEADERS = {"順位", "得点", "ライン", "ミノ", "時間", "日時"};
+
+    private CardLayout cardLayout;
+    private JPanel mainPanel;
+    private final ScoreStore store;
+    private final JLabel[][] cells = new JLabel[SHOW_COUNT][HEADERS.length];
+    private final JLabel statsLabel = new JLabel(" ", SwingConstants.CENTER);
+    private final Timer loadingTimer; // 読み込みが終わるまで表示を更新する
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm");
+
+    public LeaderboardPanel(CardLayout cardLayout, JPanel mainPanel) {
+        this.cardLayout = cardLayout;
+        this.mainPanel = mainPanel;
+        this.store = ScoreStore.getInstance();
+
+        setLayout(new BorderLayout());
+        UITheme.background(this, UITheme::background);
+
+        // タイトル
+        JLabel titleLabel = UITheme.text(new JLabel("ランキング"), Font.BOLD, 32, UITheme::accent);
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        titleLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 20, 0));
+
+        // 順位表
+        JPanel table = new JPanel(new GridLayout(SHOW_COUNT + 1, HEADERS.length, 10, 4));
+        UITheme.background(table, UITheme::panel);
+        table.setBorder(BorderFactory.createEmptyBorder(10, 30, 10, 30));
+        for (String header : HEADERS) {
+            JLabel label = UITheme.text(new JLabel(header, SwingConstants.CENTER), Font.BOLD, 16, UITheme::accent);
+            table.add(label);
+        }
+        for (int i = 0; i < SHOW_COUNT; i++) {
+            for (int j = 0; j < HEADERS.length; j++) {
+                JLabel label = UITheme.latinText(new JLabel(" ", SwingConstants.CENTER), Font.BOLD, 16,
+                        i == 0 ? UITheme::highlight : UITheme::text);
+                cells[i][j] = label;
+                table.add(label);
+            }
+        }
+
+        // 統計と戻るボタン
+        JPanel bottomPanel = new JPanel();
+        bottomPanel.setLayout(new BoxLayout(bottomPanel, BoxLayout.Y_AXIS));
+        UITheme.background(bottomPanel, UITheme::background);
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 20, 0));
+
+        UITheme.text(statsLabel, Font.PLAIN, 14, UITheme::subText);
+        statsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        JButton backButton = createStyledButton("戻る");
+        backButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        backButton.addActionListener(e -> cardLayout.show(mainPanel, "title"));
+
+        bottomPanel.add(statsLabel);
+        bottomPanel.add(Box.createRigidArea(new Dimension(0, 15)));
+        bottomPanel.add(backButton);
+
+        add(titleLabel, BorderLayout.NORTH);
+        add(table, BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        loadingTimer = new Timer(100, e -> refresh());
+        // 画面が表示されるたびに最新のキャッシュを反映
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                refresh();
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                loadingTimer.stop();
+            }
+        });
+    }
+
+    // キャッシュの内容で表を更新
+    private void refresh() {
+        ScoreStore.Leaderboard board = store.getLeaderboard();
+        if (!board.isLoaded()) {
+            statsLabel.setText("読み込み中...");
+            loadingTimer.start();
+            return;
+        }
+        loadingTimer.stop();
+
+        List<ScoreRecord> top = board.getTop();
+        for (int i = 0; i < SHOW_COUNT; i++) {
+            if (i < top.size()) {
+                ScoreRecord record = top.get(i);
+                cells[i][0].setText(String.valueOf(i + 1));
+                cells[i][1].setText(String.valueOf(record.getScore()));
+                cells[i][2].setText(String.valueOf(record.getLines()));
+                cells[i][3].setText(String.valueOf(record.getPieces()));
+                cells[i][4].setText(formatTime(record.getTicks()));
+                cells[i][5].setText(dateFormat.format(new Date(record.getTimestamp())));
+            } else {
+                for (JLabel cell : cells[i]) {
+                    cell.setText(" ");
+                }
+            }
+        }
+        if (top.isEmpty()) {
+            statsLabel.setText("まだ記録がありません");
+            return;
+        }
+        statsLabel.setText(String.format("プレイ回数 %d / 合計ライン %d / 合計ミノ %d / 合計プレイ時間 %s",
+                board.getSessions(), board.getLines(), board.getPieces(), formatTime(board.getTicks())));
+    }
+
+    // ティック数を h:mm:ss / m:ss に
+    private static String formatTime(long ticks) {
+        long seconds = ticks / GameLoop.TICK_RATE;
+        if (seconds >= 3600) {
+            return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+        }
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    // スタイル付きボタンを作成（色と枠線はテーマから）
+    private JButton createStyledButton(String text) {
+        JButton button = new JButton(text);
+        button.setPreferredSize(new Dimension(150, 50));
+        button.setMaximumSize(new Dimension(150, 50));
+        return UITheme.button(button, Font.BOLD, 18, false);
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PerfStats {
+    private static final long WINDOW_NANOS = 1_000_000_000L; // FPSとGCの集計間隔
+    private static final long TEXT_INTERVAL_NANOS = 250_000_000L; // オーバーレイ文字列の更新間隔
+
+    // --- ヒストグラム（それぞれ書き込むスレッドは1つ） ---
+    private final LatencyHistogram tick = new LatencyHistogram("tick");                 // ゲームループ
+    private final LatencyHistogram paint = new LatencyHistogram("paint");               // 描画スレッド
+    private final LatencyHistogram frameInterval = new LatencyHistogram("frame");       // 描画スレッド
+    private final LatencyHistogram inputToPaint = new LatencyHistogram("input_to_paint"); // 描画スレッド
+
+    // --- FPSとGC ---
+    private long lastFrameNanos;
+    private long windowStart;
+    private int windowFrames;
+    private volatile double fps;
+    private volatile long gcCount;
+    private volatile long gcMillis;
+
+    // --- 各部の計測値の取得元（nullなら表示しない） ---
+    private volatile GameLoop loop; // ティックの遅れと捨てたティック数
+    private volatile InputState input; // キーを押してから状態に反映されるまでの遅延
+    private volatile GameCanvas canvas; // ACTIVE描画のFPSとshow()で待った時間
+    private volatile BotPlayer bot;     // 自動プレイの1ミノあたりの探索時間
+
+    // --- オーバーレイ表示用の文字列（一定間隔で作り直す） ---
+    private String[] lines = new String[0];
+    private long linesUpdated;
+
+    public LatencyHistogram getTick() { return tick; }
+    public LatencyHistogram getPaint() { return paint; }
+    public LatencyHistogram getFrameInterval() { return frameInterval; }
+    public LatencyHistogram getInputToPaint() { return inputToPaint; }
+    public double getFps() { return fps; }
+
+    public void setLoop(GameLoop loop) { this.loop = loop; }
+    public void setInput(InputState input) { this.input = input; }
+    public void setCanvas(GameCanvas canvas) { this.canvas = canvas; }
+    public void setBot(BotPlayer bot) { this.bot = bot; }
+
+    // 1フレーム描き終えた時に呼ぶ
+    public void frame(long now, long paintNanos) {
+        paint.record(paintNanos);
+        if (lastFrameNanos != 0) {
+            frameInterval.record(now - lastFrameNanos);
+        }
+        lastFrameNanos = now;
+
+        windowFrames++;
+        if (windowStart == 0) {
+            windowStart = now;
+        } else if (now - windowStart >= WINDOW_NANOS) {
+            fps = windowFrames * 1e9 / (now - windowStart);
+            windowStart = now;
+            windowFrames = 0;
+            updateGc();
+        }
+    }
+
+    // GCの累計回数と時間
+    private void updateGc() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        gcCount = count;
+        gcMillis = millis;
+    }
+
+    // オーバーレイに表示する行（描画スレッドから呼ぶ）
+    public String[] overlayLines(long now) {
+        if (lines.length == 0 || now - linesUpdated >= TEXT_INTERVAL_NANOS) {
+            List<String> next = new ArrayList<>();
+            next.add(String.format("FPS %.1f", fps));
+            next.add(format(tick));
+            next.add(format(paint));
+            next.add(format(frameInterval));
+            next.add(format(inputToPaint));
+            InputState in = input;
+            if (in != null) {
+                next.add(String.format("%-14s avg %6.2fms  max %6.2fms  %d回",
+                        "input_to_tick", in.getLatencyAverageNanos() / 1e6, in.getLatencyMaxNanos() / 1e6,
+                        in.getLatencyCount()));
+            }
+            GameCanvas c = canvas;
+            if (c != null) {
+                next.add(String.format("%-14s %5.2f / %5.2f / %5.2fms  FPS %.0f%s",
+                        "show last/avg/max", c.getLastShowNanos() / 1e6, c.getAverageShowNanos() / 1e6,
+                        c.getMaxShowNanos() / 1e6, c.getFps(), c.isPageFlipping() ? "  flip" : ""));
+            }
+            BotPlayer b = bot;
+            if (b != null && b.getSearchCount() > 0) {
+                next.add(String.format("%-14s last %6.2fms  max %6.2fms  超過 %d/%d",
+                        "bot_search", b.getLastSearchNanos() / 1e6, b.getMaxSearchNanos() / 1e6,
+                        b.getOverBudgetCount(), b.getSearchCount()));
+            }
+            GameLoop l = loop;
+            if (l != null) {
+                next.add(String.format("%-14s avg %6.2fms  max %6.2fms  捨てた %d",
+                        "tick_late", l.getAverageLatenessNanos() / 1e6, l.getMaxLatenessNanos() / 1e6,
+                        l.getMissedTicks()));
+            }
+            next.add(String.format("GC %d回 / %dms", gcCount, gcMillis));
+            lines = next.toArray(new String[0]);
+            linesUpdated = now;
+        }
+        return lines;
+    }
+
+    private static String format(LatencyHistogram h) {
+        return String.format("%-14s p50 %6.2fms  p99 %6.2fms  max %6.2fms",
+                h.getName(),
+                h.percentileNanos(50) / 1e6,
+                h.percentileNanos(99) / 1e6,
+                h.getMaxNanos() / 1e6);
+    }
+
+    // ヒストグラムをファイルに書き出す（ビルド間の比較用）
+    public void dump(String path) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# name count p50_us p99_us max_us | buckets(upper_us:count)\n");
+        for (LatencyHistogram h : new LatencyHistogram[] {tick, paint, frameInterval, inputToPaint}) {
+            sb.append(h.getName()).append(' ')
+                    .append(h.getCount()).append(' ')
+                    .append(h.percentileNanos(50) / 1000).append(' ')
+                    .append(h.percentileNanos(99) / 1000).append(' ')
+                    .append(h.getMaxNanos() / 1000).append(" | ");
+            h.appendBuckets(sb);
+            sb.append('\n');
+        }
+        sb.append("# name key value ...\n");
+        InputState in = input;
+        if (in != null) {
+            sb.append("input_to_tick")
+                    .append(" count ").append(in.getLatencyCount())
+                    .append(" avg_us ").append(in.getLatencyAverageNanos() / 1000)
+                    .append(" max_us ").append(in.getLatencyMaxNanos() / 1000)
+                    .append('\n');
+        }
+        GameCanvas c = canvas;
+        if (c != null) {
+            sb.append("show")
+                    .append(" fps ").append(Math.round(c.getFps()))
+                    .append(" avg_us ").append(c.getAverageShowNanos() / 1000)
+                    .append(" max_us ").append(c.getMaxShowNanos() / 1000)
+                    .append(" page_flipping ").append(c.isPageFlipping())
+                    .append('\n');
+        }
+        BotPlayer b = bot;
+        if (b != null && b.getSearchCount() > 0) {
+            sb.append("bot_search")
+                    .append(" count ").append(b.getSearchCount())
+                    .append(" max_us ").append(b.getMaxSearchNanos() / 1000)
+                    .append(" over_budget ").append(b.getOverBudgetCount())
+                    .append(" budget_us ").append(BotPlayer.SEARCH_BUDGET_NANOS / 1000)
+                    .append('\n');
+        }
+        GameLoop l = loop;
+        if (l != null) {
+            sb.append("tick_late")
+                    .append(" avg_us ").append(l.getAverageLatenessNanos() / 1000)
+                    .append(" max_us ").append(l.getMaxLatenessNanos() / 1000)
+                    .append(" missed ").append(l.getMissedTicks())
+                    .append('\n');
+        }
+        try (Writer w = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            w.write(sb.toString());
+        } catch (IOException e) {
+            System.err.println("計測結果の保存に失敗しました: " + e.getMessage());
+        }
+    }
+}
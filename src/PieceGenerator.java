@@ -0,0 +1,116 @@
+public class PieceGenerator {
+    // 抽選方式
+    public enum Mode {
+        UNIFORM, // 毎回7種類から等確率
+        BAG7     // 7種類を1セットとしてシャッフル
+    }
+
+    private static final int BATCH = Tetromino.COUNT * 4; // 一度にまとめて生成する数
+
+    private final Mode mode;
+    private final long seed;
+    private final int previewCount;
+    private final int[] queue; // 先読みキュー（リングバッファ、容量は2の累乗）
+    private final int capacityMask;
+    private final int[] bag = new int[Tetromino.COUNT];
+    private int head;
+    private int size;
+    private long state; // 乱数の内部状態（SplitMix64）
+
+    public PieceGenerator(long seed, Mode mode, int previewCount) {
+        this.mode = mode;
+        this.seed = seed;
+        this.previewCount = previewCount;
+        this.state = seed;
+
+        int capacity = Integer.highestOneBit(previewCount + BATCH) << 1;
+        this.queue = new int[capacity];
+        this.capacityMask = capacity - 1;
+        refill();
+    }
+
+    // 次のミノを取り出す
+    public int next() {
+        int type = queue[head];
+        head = (head + 1) & capacityMask;
+        size--;
+        refill();
+        return type;
+    }
+
+    // i個先のミノを見る（0が次に出るミノ）
+    public int peek(int index) {
+        return queue[(head + index) & capacityMask];
+    }
+
+    public int getPreviewCount() { return previewCount; }
+    public Mode getMode() { return mode; }
+    public long getSeed() { return seed; }
+
+    // 乱数の内部状態と先読みキューに溜まっている数（リプレイのキーフレーム用）
+    public long getState() { return state; }
+    public int getQueuedCount() { return size; }
+
+    // 乱数の状態と先読みキューの中身を復元（queued[0]が次に出るミノ）
+    public void restore(long state, int[] queued, int count) {
+        if (count > queue.length) {
+            throw new IllegalArgumentException("先読みキューに入りきりません: " + count);
+        }
+        this.state = state;
+        head = 0;
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            push(queued[i]);
+        }
+        refill();
+    }
+
+    // 先読み数を下回ったらまとめて補充
+    private void refill() {
+        while (size <= previewCount) {
+            if (mode == Mode.BAG7) {
+                for (int n = 0; n < BATCH; n += Tetromino.COUNT) {
+                    fillBag();
+                    for (int i = 0; i < Tetromino.COUNT; i++) {
+                        push(bag[i]);
+                    }
+                }
+            } else {
+                for (int n = 0; n < BATCH; n++) {
+                    push(nextInt(Tetromino.COUNT));
+                }
+            }
+        }
+    }
+
+    // 7種類をフィッシャー・イェーツでシャッフル
+    private void fillBag() {
+        for (int i = 0; i < Tetromino.COUNT; i++) {
+            bag[i] = i;
+        }
+        for (int i = Tetromino.COUNT - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            int tmp = bag[i];
+            bag[i] = bag[j];
+            bag[j] = tmp;
+        }
+    }
+
+    private void push(int type) {
+        queue[(head + size) & capacityMask] = type;
+        size++;
+    }
+
+    // 0以上bound未満の乱数
+    private int nextInt(int bound) {
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    // SplitMix64（状態がlong1つなので保存・再現が簡単）
+    private long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
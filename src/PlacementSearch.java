@@ -0,0 +1,328 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class PlacementSearch {
+    // 評価関数の重み（高さ・消えた行・穴・凸凹）
+    private static final double WEIGHT_HEIGHT = -0.510066;
+    private static final double WEIGHT_LINES = 0.760666;
+    private static final double WEIGHT_HOLES = -0.35663;
+    private static final double WEIGHT_BUMPINESS = -0.184483;
+    private static final double LOST = -1e9; // 置くとゲームオーバーになる配置
+    private static final long NONE = Long.MIN_VALUE; // 回転できなかった時の位置
+
+    private static final int SPLIT_THRESHOLD = 2;  // これ以下の候補数なら分割せずに計算
+    private static final int MAX_NODES = 1 << 14;  // 2手読みする最大の評価数（超えたら1手だけ読む）
+
+    // スレッドごとの作業領域（探索中は新しく確保しない）
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<>();
+
+    private final ForkJoinPool pool; // nullなら呼び出したスレッドだけで探索
+
+    // --- 1手目の候補と評価値（探索のたびに使い回す） ---
+    private int[] candRotation = new int[0];
+    private int[] candX = new int[0];
+    private int[] candY = new int[0];
+    private double[] scores = new double[0];
+    private int candCount;
+
+    // --- 評価タスク（探索のたびに使い回し、分割のたびに新しく作らない） ---
+    private Evaluate[] tasks = new Evaluate[0]; // SPLIT_THRESHOLD個ずつの候補を受け持つ
+    private final EvaluateAll evaluateAll = new EvaluateAll();
+
+    // --- 結果 ---
+    private int bestRotation;
+    private int bestX;
+    private int bestY;
+    private double bestScore;
+    private long searchNanos; // 直前の探索にかかった時間
+
+    public PlacementSearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // 盤面に(x, y)・向きrotationでいるtype番のミノの置き場所を探す（nextTypeが0以上なら次のミノまで読む）
+    // 置ける場所があればtrue。結果はgetBestRotation / getBestX / getBestYで取得
+    public boolean search(BitBoard board, int type, int rotation, int x, int y, int nextType) {
+        long start = System.nanoTime();
+        ensureCapacity(board.getCols());
+        candCount = enumerate(board, type, rotation, x, y, candRotation, candX, candY);
+        if (candCount == 0) {
+            searchNanos = System.nanoTime() - start;
+            return false;
+        }
+
+        boolean twoPly = nextType >= 0 && (long) candCount * candCount <= MAX_NODES;
+        int secondType = twoPly ? nextType : -1;
+        if (pool != null && candCount > SPLIT_THRESHOLD) {
+            int taskCount = (candCount + SPLIT_THRESHOLD - 1) / SPLIT_THRESHOLD;
+            for (int i = 0; i < taskCount; i++) {
+                tasks[i].reinitialize();
+                tasks[i].set(board, type, secondType, i * SPLIT_THRESHOLD,
+                        Math.min(candCount, (i + 1) * SPLIT_THRESHOLD));
+            }
+            evaluateAll.reinitialize();
+            evaluateAll.taskCount = taskCount;
+            pool.invoke(evaluateAll);
+        } else {
+            tasks[0].set(board, type, secondType, 0, candCount);
+            tasks[0].compute();
+        }
+
+        // 同点なら先に列挙した方（回転の少ない方）を選ぶ
+        int best = 0;
+        for (int i = 1; i < candCount; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        bestRotation = candRotation[best];
+        bestX = candX[best];
+        bestY = candY[best];
+        bestScore = scores[best];
+        searchNanos = System.nanoTime() - start;
+        return true;
+    }
+
+    private void ensureCapacity(int cols) {
+        int capacity = maxCandidates(cols);
+        if (candRotation.length < capacity) {
+            candRotation = new int[capacity];
+            candX = new int[capacity];
+            candY = new int[capacity];
+            scores = new double[capacity];
+            tasks = new Evaluate[(capacity + SPLIT_THRESHOLD - 1) / SPLIT_THRESHOLD];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = new Evaluate();
+            }
+        }
+    }
+
+    private static int maxCandidates(int cols) {
+        return 4 * (cols + 4);
+    }
+
+    // 1手目の候補[from, to)を評価するタスク（値はforkの前に設定するので、実行するスレッドから見える）
+    private class Evaluate extends RecursiveAction {
+        private BitBoard root;
+        private int type;
+        private int nextType;
+        private int from;
+        private int to;
+
+        void set(BitBoard root, int type, int nextType, int from, int to) {
+            this.root = root;
+            this.type = type;
+            this.nextType = nextType;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            Scratch scratch = scratchFor(root);
+            for (int i = from; i < to; i++) {
+                scores[i] = evaluate(scratch, root, type, candRotation[i], candX[i], candY[i], nextType);
+            }
+        }
+    }
+
+    // tasks[0, taskCount)を並列に実行する（1つは自分で計算し、残りは空いているスレッドに盗ませる）
+    private class EvaluateAll extends RecursiveAction {
+        private int taskCount;
+
+        @Override
+        protected void compute() {
+            for (int i = 1; i < taskCount; i++) {
+                tasks[i].fork();
+            }
+            tasks[0].compute();
+            // 後にforkした方から待つと、盗まれていないタスクは自分のスレッドでそのまま実行される
+            for (int i = taskCount - 1; i >= 1; i--) {
+                tasks[i].join();
+            }
+        }
+    }
+
+    // 1手目を置いた盤面を評価（nextTypeが0以上なら次のミノの一番良い置き場所まで読む）
+    private static double evaluate(Scratch scratch, BitBoard root, int type, int rotation, int x, int y,
+                                   int nextType) {
+        BitBoard first = scratch.first;
+        first.copyFrom(root);
+        int lines = placeAndClear(first, type, rotation, x, y);
+        if (lines < 0) {
+            return LOST;
+        }
+        if (nextType < 0) {
+            return score(first, lines);
+        }
+
+        int spawnX = (first.getCols() - Tetromino.boxSize(nextType)) / 2;
+        if (first.collides(Tetromino.masks(nextType, 0), spawnX, 0)) {
+            return LOST;
+        }
+        int count = enumerate(first, nextType, 0, spawnX, 0, scratch.rotation, scratch.x, scratch.y);
+        double best = LOST;
+        BitBoard second = scratch.second;
+        for (int i = 0; i < count; i++) {
+            second.copyFrom(first);
+            int more = placeAndClear(second, nextType, scratch.rotation[i], scratch.x[i], scratch.y[i]);
+            if (more >= 0) {
+                best = Math.max(best, score(second, lines + more));
+            }
+        }
+        return best;
+    }
+
+    // ミノを置いて揃った行を消す（盤面からはみ出したら-1）
+    private static int placeAndClear(BitBoard board, int type, int rotation, int x, int y) {
+        int[] masks = Tetromino.masks(type, rotation);
+        for (int r = 0; r < masks.length; r++) {
+            if (masks[r] != 0 && y + r < 0) {
+                return -1;
+            }
+        }
+        board.place(masks, Tetromino.color(type), x, y);
+        return board.clearFullRows(y, y + masks.length - 1, null);
+    }
+
+    // 盤面の評価値（高いほど良い）
+    private static double score(BitBoard board, int lines) {
+        int cols = board.getCols();
+        int aggregateHeight = 0;
+        int bumpiness = 0;
+        int previous = -1;
+        for (int x = 0; x < cols; x++) {
+            int h = board.getColumnHeight(x);
+            aggregateHeight += h;
+            if (previous >= 0) {
+                bumpiness += Math.abs(h - previous);
+            }
+            previous = h;
+        }
+        return WEIGHT_HEIGHT * aggregateHeight
+                + WEIGHT_LINES * lines
+                + WEIGHT_HOLES * countHoles(board)
+                + WEIGHT_BUMPINESS * bumpiness;
+    }
+
+    // 上にブロックがある空きマスの数（一番上の行から下へ、覆われた列のビットを溜めながら数える）
+    private static int countHoles(BitBoard board) {
+        int words = board.getWords();
+        int top = board.getTopRow();
+        int holes = 0;
+        for (int w = 0; w < words; w++) {
+            long covered = 0;
+            for (int y = top; y < board.getRows(); y++) {
+                long row = board.getRowWord(y, w);
+                holes += Long.bitCount(covered & ~row);
+                covered |= row;
+            }
+        }
+        return holes;
+    }
+
+    // (x, y)・向きrotationから回転してから左右に動かし、真下に落とせる場所を列挙する。候補数を返す
+    private static int enumerate(BitBoard board, int type, int rotation, int x, int y,
+                                 int[] outRotation, int[] outX, int[] outY) {
+        int count = 0;
+        for (int turn = 0; turn < 4; turn++) {
+            // 0: そのまま、1: 右回転、2: 右回転2回、3: 左回転
+            int r = rotation;
+            long pos = pack(x, y);
+            if (turn == 1 || turn == 2) {
+                pos = rotate(board, type, r, x, y, true);
+                r = Tetromino.rotated(r, true);
+                if (turn == 2 && pos != NONE) {
+                    pos = rotate(board, type, r, unpackX(pos), unpackY(pos), true);
+                    r = Tetromino.rotated(r, true);
+                }
+            } else if (turn == 3) {
+                pos = rotate(board, type, r, x, y, false);
+                r = Tetromino.rotated(r, false);
+            }
+            if (pos == NONE) {
+                continue;
+            }
+
+            int[] masks = Tetromino.masks(type, r);
+            int[] bottoms = Tetromino.bottoms(type, r);
+            int startX = unpackX(pos);
+            int startY = unpackY(pos);
+            int left = startX;
+            while (!board.collides(masks, left - 1, startY)) {
+                left--;
+            }
+            for (int px = left; !board.collides(masks, px, startY); px++) {
+                outRotation[count] = r;
+                outX[count] = px;
+                outY[count] = board.dropY(masks, bottoms, px, startY);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 壁蹴りを試しながら回転した位置（回転できなければNONE）
+    private static long rotate(BitBoard board, int type, int rotation, int x, int y, boolean clockwise) {
+        int[] masks = Tetromino.masks(type, Tetromino.rotated(rotation, clockwise));
+        int kicks = Tetromino.kickCount(type);
+        for (int i = 0; i < kicks; i++) {
+            int newX = x + Tetromino.kickX(type, rotation, clockwise, i);
+            int newY = y + Tetromino.kickY(type, rotation, clockwise, i);
+            if (!board.collides(masks, newX, newY)) {
+                return pack(newX, newY);
+            }
+        }
+        return NONE;
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static int unpackX(long pos) {
+        return (int) (pos >> 32);
+    }
+
+    private static int unpackY(long pos) {
+        return (int) pos;
+    }
+
+    private static Scratch scratchFor(BitBoard root) {
+        Scratch scratch = SCRATCH.get();
+        if (scratch == null || !scratch.fits(root)) {
+            scratch = new Scratch(root.getCols(), root.getRows());
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    // スレッドごとの作業用の盤面と2手目の候補
+    private static class Scratch {
+        final BitBoard first;
+        final BitBoard second;
+        final int[] rotation;
+        final int[] x;
+        final int[] y;
+
+        Scratch(int cols, int rows) {
+            first = new BitBoard(cols, rows);
+            second = new BitBoard(cols, rows);
+            int capacity = maxCandidates(cols);
+            rotation = new int[capacity];
+            x = new int[capacity];
+            y = new int[capacity];
+        }
+
+        boolean fits(BitBoard board) {
+            return first.getCols() == board.getCols() && first.getRows() == board.getRows();
+        }
+    }
+
+    // ゲッター
+    public int getBestRotation() { return bestRotation; }
+    public int getBestX() { return bestX; }
+    public int getBestY() { return bestY; }
+    public double getBestScore() { return bestScore; }
+    public long getSearchNanos() { return searchNanos; }
+}
@@ -0,0 +1,8 @@
+// 自動プレイの方針（ティックごとにGameEngine.INPUT_*の組み合わせを返す）
+public interface PlayPolicy {
+    // ゲームをリセットした時に呼ぶ
+    void reset();
+
+    // 次のティックの入力を決める（エンジンをロックした状態で呼ぶ）
+    int nextInputs(GameEngine engine);
+}
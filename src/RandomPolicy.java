@@ -0,0 +1,33 @@
+import java.util.SplittableRandom;
+
+public class RandomPolicy implements PlayPolicy {
+    // 毎ティック選ぶ入力（ハードドロップを混ぜてミノを適当な場所に落とす）
+    private static final int[] CHOICES = {
+            GameEngine.INPUT_LEFT,
+            GameEngine.INPUT_RIGHT,
+            GameEngine.INPUT_ROTATE_RIGHT,
+            GameEngine.INPUT_ROTATE_LEFT,
+            GameEngine.INPUT_DOWN,
+            0,
+            0,
+            GameEngine.INPUT_HARD_DROP
+    };
+
+    private final long seed;
+    private SplittableRandom random;
+
+    public RandomPolicy(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void reset() {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int nextInputs(GameEngine engine) {
+        return CHOICES[random.nextInt(CHOICES.length)];
+    }
+}
@@ -0,0 +1,404 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// リプレイ（シード・設定・入力列・キーフレーム）。ファイル形式:
+//   ヘッダー: "STRP" / 版 / シード(8バイト) / 抽選方式・先読み数・盤面サイズ・重力・速度・DAS・ARR・キー(可変長整数)
+//   本体: 可変長整数 (前の記録からのティック差 << 6) | 入力ビット の並び。ティックはGameEngine.stepを呼んだ回数
+//         入力ビットが0の時は続く1バイトが制御コード（0: 終了、1: キーフレーム）
+//         キーフレーム: 長さ(可変長整数) / ミノ・進行状況 / 乱数の状態 / 盤面（一番上の行から下をランレングス圧縮）
+//   索引: キーフレームごとに ティック(8バイト) / ファイル先頭からの位置(8バイト)
+//   末尾: 最終ティック・入力数・得点・ライン数・ミノ数・盤面のハッシュ・索引の位置(各8バイト) / キーフレーム数 / "STRI"
+public class Replay {
+    static final int MAGIC = 0x53545250;         // "STRP"
+    static final int TRAILER_MAGIC = 0x53545249; // "STRI"
+    static final int VERSION = 2;
+    static final int INPUT_BITS = 6;     // GameEngine.INPUT_* のビット数
+    static final int KEY_COUNT = 6;      // 左・右・下・右回転・左回転・ハードドロップ
+    static final int CONTROL_END = 0;
+    static final int CONTROL_KEYFRAME = 1;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int TRAILER_SIZE = 7 * 8 + 4 + 4;
+
+    // --- 設定のスナップショット ---
+    private final long seed;
+    private final PieceGenerator.Mode mode;
+    private final int previewCount;
+    private final int cols;
+    private final int rows;
+    private final int gravity;
+    private final int gameSpeed;
+    private final int das;
+    private final int arr;
+    private final int[] keys;
+
+    // --- 読み込んだファイル（メモリマップ、読むときはduplicateして位置を別に持つ） ---
+    private ByteBuffer data;
+    private int bodyStart;
+    private int indexStart;
+    private int keyframeCount;
+
+    // --- 結果 ---
+    private long endTick;
+    private long eventCount;
+    private long score;
+    private long lines;
+    private long pieces;
+    private long boardHash;
+
+    public Replay(long seed, PieceGenerator.Mode mode, int previewCount, int cols, int rows,
+                  int gravity, int gameSpeed, int das, int arr, int[] keys) {
+        if (keys.length != KEY_COUNT) {
+            throw new IllegalArgumentException("キーの数が違います: " + keys.length);
+        }
+        this.seed = seed;
+        this.mode = mode;
+        this.previewCount = previewCount;
+        this.cols = cols;
+        this.rows = rows;
+        this.gravity = gravity;
+        this.gameSpeed = gameSpeed;
+        this.das = das;
+        this.arr = arr;
+        this.keys = keys.clone();
+    }
+
+    // ヘッダーを書き込む
+    void writeHeader(ByteBuffer out) {
+        out.putInt(MAGIC);
+        out.put((byte) VERSION);
+        out.putLong(seed);
+        putVarLong(out, mode.ordinal());
+        putVarLong(out, previewCount);
+        putVarLong(out, cols);
+        putVarLong(out, rows);
+        putVarLong(out, gravity);
+        putVarLong(out, gameSpeed);
+        putVarLong(out, das);
+        putVarLong(out, arr);
+        for (int key : keys) {
+            putVarLong(out, key);
+        }
+    }
+
+    // ヘッダーを読み込む
+    static Replay readHeader(ByteBuffer in) throws IOException {
+        if (in.remaining() < 5 || in.getInt() != MAGIC) {
+            throw new IOException("リプレイファイルではありません");
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IOException("対応していないリプレイの版です: " + version);
+        }
+        long seed = in.getLong();
+        PieceGenerator.Mode mode = PieceGenerator.Mode.values()[(int) getVarLong(in)];
+        int previewCount = (int) getVarLong(in);
+        int cols = (int) getVarLong(in);
+        int rows = (int) getVarLong(in);
+        int gravity = (int) getVarLong(in);
+        int gameSpeed = (int) getVarLong(in);
+        int das = (int) getVarLong(in);
+        int arr = (int) getVarLong(in);
+        int[] keys = new int[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = (int) getVarLong(in);
+        }
+        return new Replay(seed, mode, previewCount, cols, rows, gravity, gameSpeed, das, arr, keys);
+    }
+
+    // ファイルをメモリマップして、ヘッダーと末尾だけ読む（本体は再生・シークの時に必要な所だけ読む）
+    public static Replay read(Path file) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            ByteBuffer header = data.duplicate();
+            Replay replay = readHeader(header);
+            replay.data = data;
+            replay.bodyStart = header.position();
+            replay.readTrailer();
+            return replay;
+        } catch (RuntimeException e) {
+            throw new IOException("リプレイファイルが壊れています: " + file, e);
+        }
+    }
+
+    private void readTrailer() throws IOException {
+        int at = data.capacity() - TRAILER_SIZE;
+        if (at < bodyStart || data.getInt(at + TRAILER_SIZE - 4) != TRAILER_MAGIC) {
+            throw new IOException("リプレイが最後まで書き込まれていません");
+        }
+        endTick = data.getLong(at);
+        eventCount = data.getLong(at + 8);
+        score = data.getLong(at + 16);
+        lines = data.getLong(at + 24);
+        pieces = data.getLong(at + 32);
+        boardHash = data.getLong(at + 40);
+        indexStart = (int) data.getLong(at + 48);
+        keyframeCount = data.getInt(at + 56);
+    }
+
+    // 記録時と同じ設定のエンジンを作ってリセット
+    public GameEngine newEngine() {
+        GameEngine engine = new GameEngine(cols, rows);
+        engine.setGravity(gravity);
+        engine.reset(new PieceGenerator(seed, mode, previewCount));
+        return engine;
+    }
+
+    // 最初から最後まで再生したエンジンを返す（キーフレームは使わない）
+    public GameEngine play() {
+        GameEngine engine = newEngine();
+        ByteBuffer in = data.duplicate();
+        in.position(bodyStart);
+        simulate(engine, in, 0, endTick);
+        return engine;
+    }
+
+    // tickティック目（stepをtick回呼んだ後）の状態のエンジンを返す
+    // 直前のキーフレームから復元して、残りのティックだけシミュレーションする
+    public GameEngine seek(long tick) {
+        tick = Math.max(0, Math.min(tick, endTick));
+        ByteBuffer in = data.duplicate();
+        int keyframe = findKeyframe(tick);
+        GameEngine engine;
+        long from;
+        if (keyframe < 0) {
+            engine = newEngine();
+            in.position(bodyStart);
+            from = 0;
+        } else {
+            in.position((int) data.getLong(indexStart + keyframe * INDEX_ENTRY_SIZE + 8));
+            from = data.getLong(indexStart + keyframe * INDEX_ENTRY_SIZE);
+            engine = readKeyframe(in);
+        }
+        simulate(engine, in, from, tick);
+        return engine;
+    }
+
+    // tick以前で一番新しいキーフレームの番号（無ければ-1）。索引を二分探索する
+    private int findKeyframe(long tick) {
+        int lo = 0;
+        int hi = keyframeCount - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (data.getLong(indexStart + mid * INDEX_ENTRY_SIZE) <= tick) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // キーフレームの記録（制御コードの前の可変長整数から）を読んでエンジンを復元
+    private GameEngine readKeyframe(ByteBuffer in) {
+        getVarLong(in);
+        if (in.get() != CONTROL_KEYFRAME) {
+            throw new IllegalStateException("索引の位置がキーフレームではありません");
+        }
+        getVarLong(in); // 長さ
+        int type = (int) getVarLong(in);
+        int rotation = (int) getVarLong(in);
+        int x = (int) unzigzag(getVarLong(in));
+        int y = (int) unzigzag(getVarLong(in));
+        int gravityProgress = (int) getVarLong(in);
+        long tickCount = getVarLong(in);
+        long linesCleared = getVarLong(in);
+        long piecesPlaced = getVarLong(in);
+        long keyframeScore = getVarLong(in);
+
+        long state = in.getLong();
+        int queuedCount = (int) getVarLong(in);
+        int[] queued = new int[queuedCount];
+        for (int i = 0; i < queuedCount; i++) {
+            queued[i] = in.get();
+        }
+        PieceGenerator generator = new PieceGenerator(seed, mode, previewCount);
+        generator.restore(state, queued, queuedCount);
+
+        byte[] cells = new byte[cols * rows];
+        int i = (int) getVarLong(in) * cols; // 一番上の行より上は空
+        while (i < cells.length) {
+            int run = (int) getVarLong(in);
+            byte color = in.get();
+            for (int end = i + run; i < end; i++) {
+                cells[i] = color;
+            }
+        }
+
+        GameEngine engine = new GameEngine(cols, rows);
+        engine.setGravity(gravity);
+        engine.restore(generator, cells, type, rotation, x, y, gravityProgress, tickCount,
+                linesCleared, piecesPlaced, keyframeScore);
+        return engine;
+    }
+
+    // キーフレームの中身を書き込む（長さと制御コードは書き込む側で付ける）
+    static void writeKeyframe(ByteBuffer out, GameEngine engine) {
+        putVarLong(out, engine.getMinoType());
+        putVarLong(out, engine.getMinoRotation());
+        putVarLong(out, zigzag(engine.getCurrentX()));
+        putVarLong(out, zigzag(engine.getCurrentY()));
+        putVarLong(out, engine.getGravityProgress());
+        putVarLong(out, engine.getTickCount());
+        putVarLong(out, engine.getLinesCleared());
+        putVarLong(out, engine.getPiecesPlaced());
+        putVarLong(out, engine.getScore());
+
+        PieceGenerator generator = engine.getGenerator();
+        out.putLong(generator.getState());
+        int queuedCount = generator.getQueuedCount();
+        putVarLong(out, queuedCount);
+        for (int i = 0; i < queuedCount; i++) {
+            out.put((byte) generator.peek(i));
+        }
+
+        BitBoard board = engine.getBoard();
+        int cols = board.getCols();
+        int top = board.getTopRow();
+        putVarLong(out, top);
+        int run = 0;
+        int color = -1;
+        for (int y = top; y < board.getRows(); y++) {
+            for (int x = 0; x < cols; x++) {
+                int cell = board.get(x, y);
+                if (cell != color && run > 0) {
+                    putVarLong(out, run);
+                    out.put((byte) color);
+                    run = 0;
+                }
+                color = cell;
+                run++;
+            }
+        }
+        if (run > 0) {
+            putVarLong(out, run);
+            out.put((byte) color);
+        }
+    }
+
+    // キーフレームの最大サイズの目安（盤面が市松模様でも入る大きさ）
+    static int maxKeyframeSize(int cols, int rows, int queuedCount) {
+        return 9 * 10 + 8 + 5 + queuedCount + 5 + cols * rows * 2;
+    }
+
+    // fromティック目から入力を読みながらtoTickの直前までエンジンを進める
+    private static void simulate(GameEngine engine, ByteBuffer in, long from, long toTick) {
+        long recordTick = from; // 直前に読んだ記録のティック（差分の基準）
+        long eventTick = -1;
+        int inputs = 0;
+        for (long tick = from; tick < toTick && !engine.isGameOver(); tick++) {
+            if (eventTick < tick) {
+                // 次の入力を読む（キーフレームは長さを見て飛ばす）
+                while (true) {
+                    long value = getVarLong(in);
+                    recordTick += value >>> INPUT_BITS;
+                    inputs = (int) (value & ((1 << INPUT_BITS) - 1));
+                    if (inputs != 0) {
+                        eventTick = recordTick;
+                        break;
+                    }
+                    if (in.get() == CONTROL_END) {
+                        eventTick = Long.MAX_VALUE;
+                        break;
+                    }
+                    int length = (int) getVarLong(in);
+                    in.position(in.position() + length);
+                }
+            }
+            engine.step(eventTick == tick ? inputs : 0);
+        }
+    }
+
+    // 再生結果が記録時の結果と一致するか
+    public boolean matches(GameEngine engine) {
+        return engine.getScore() == score
+                && engine.getLinesCleared() == lines
+                && engine.getPiecesPlaced() == pieces
+                && engine.getBoard().contentHash() == boardHash;
+    }
+
+    // --- 可変長整数（7ビットずつ、上位ビットが継続フラグ） ---
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("可変長整数が長すぎます");
+    }
+
+    // 負の値を含む整数を可変長整数用に変換
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // ゲッター
+    public long getSeed() { return seed; }
+    public PieceGenerator.Mode getMode() { return mode; }
+    public int getPreviewCount() { return previewCount; }
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public int getGravity() { return gravity; }
+    public int getGameSpeed() { return gameSpeed; }
+    public int getDas() { return das; }
+    public int getArr() { return arr; }
+    public int[] getKeys() { return keys.clone(); }
+    public long getEventCount() { return eventCount; }
+    public int getKeyframeCount() { return keyframeCount; }
+    public long getEndTick() { return endTick; }
+    public long getScore() { return score; }
+    public long getLines() { return lines; }
+    public long getPieces() { return pieces; }
+
+    // リプレイを再生して記録時の結果と一致するか確認する
+    // 例: java -cp simpletetris.jar Replay replays/replay_20260101_120000_000.rpl
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("リプレイファイルを指定してください");
+            System.exit(2);
+        }
+        boolean ok = true;
+        for (String arg : args) {
+            Path file = Paths.get(arg);
+            Replay replay = read(file);
+            long start = System.nanoTime();
+            GameEngine engine = replay.play();
+            long playMicros = (System.nanoTime() - start) / 1000;
+            start = System.nanoTime();
+            GameEngine sought = replay.seek(replay.getEndTick());
+            long seekMicros = (System.nanoTime() - start) / 1000;
+            // 最初からの再生とキーフレームからのシークの両方が記録時の結果と一致すること
+            boolean match = replay.matches(engine) && replay.matches(sought);
+            ok &= match;
+            System.out.printf("%s: %dティック / 入力%d件 / キーフレーム%d個 / 得点%d / %dライン / %s"
+                            + " (再生%dµs / 末尾へのシーク%dµs)%n",
+                    file, replay.getEndTick(), replay.getEventCount(), replay.getKeyframeCount(),
+                    engine.getScore(), engine.getLinesCleared(), match ? "一致" : "不一致",
+                    playMicros, seekMicros);
+        }
+        System.exit(ok ? 0 : 1);
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// リプレイを記録する。ゲームループは入力をメモリ上のバッファに詰めるだけで、
+// ファイルへの書き込みは専用スレッドでまとめて行う
+public class ReplayWriter {
+    private static final int CHUNK_SIZE = 4096;
+    private static final int KEYFRAME_INTERVAL = GameLoop.TICK_RATE * 30; // キーフレームを入れる間隔（30秒）
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ReplayWriter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Path file;
+    private final ArrayBlockingQueue<ByteBuffer> spare = new ArrayBlockingQueue<>(4); // 書き終えたバッファ
+    private FileChannel channel; // 書き込みスレッドだけが触る
+
+    // --- ゲームループだけが触る状態 ---
+    private ByteBuffer buffer;
+    private ByteBuffer keyframe;  // キーフレームを組み立てる作業用
+    private long flushedBytes;    // 書き込みスレッドに渡したバイト数（ファイル内の位置の計算用）
+    private long tick;            // stepを呼んだ回数
+    private long lastRecordTick;  // 直前に書いた記録のティック
+    private long eventCount;
+    private long[] keyframeTicks = new long[16];
+    private long[] keyframeOffsets = new long[16];
+    private int keyframeCount;
+    private boolean finished;
+
+    public ReplayWriter(Path file, Replay header) {
+        this.file = file;
+        this.buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        header.writeHeader(buffer);
+        IO.execute(this::open);
+    }
+
+    // 1ティック分の入力を記録（GameEngine.stepに渡したものと同じ値を、stepの後に毎ティック渡す）
+    public void record(int inputs, GameEngine engine) {
+        if (finished) {
+            return;
+        }
+        if (inputs != 0) {
+            ensure(10);
+            Replay.putVarLong(buffer, ((tick - lastRecordTick) << Replay.INPUT_BITS) | inputs);
+            lastRecordTick = tick;
+            eventCount++;
+        }
+        tick++;
+        if (tick % KEYFRAME_INTERVAL == 0 && !engine.isGameOver()) {
+            writeKeyframe(engine);
+        }
+    }
+
+    // 現在の状態をキーフレームとして書き、索引に位置を控える
+    private void writeKeyframe(GameEngine engine) {
+        int max = Replay.maxKeyframeSize(engine.getCols(), engine.getRows(),
+                engine.getGenerator().getQueuedCount());
+        if (keyframe == null || keyframe.capacity() < max) {
+            keyframe = ByteBuffer.allocate(max);
+        }
+        keyframe.clear();
+        Replay.writeKeyframe(keyframe, engine);
+        keyframe.flip();
+
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+        }
+        ensure(16);
+        keyframeTicks[keyframeCount] = tick;
+        keyframeOffsets[keyframeCount] = position();
+        keyframeCount++;
+        Replay.putVarLong(buffer, (tick - lastRecordTick) << Replay.INPUT_BITS);
+        buffer.put((byte) Replay.CONTROL_KEYFRAME);
+        Replay.putVarLong(buffer, keyframe.remaining());
+        append(keyframe);
+        lastRecordTick = tick;
+    }
+
+    // 終了・索引・末尾を書いてファイルを閉じる。何も入力が無かったゲームはファイルごと捨てる
+    public void finish(GameEngine engine) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (eventCount == 0) {
+            IO.execute(this::discard);
+            return;
+        }
+        ensure(11);
+        Replay.putVarLong(buffer, (tick - lastRecordTick) << Replay.INPUT_BITS);
+        buffer.put((byte) Replay.CONTROL_END);
+
+        long indexStart = position();
+        for (int i = 0; i < keyframeCount; i++) {
+            ensure(Replay.INDEX_ENTRY_SIZE);
+            buffer.putLong(keyframeTicks[i]);
+            buffer.putLong(keyframeOffsets[i]);
+        }
+
+        ensure(Replay.TRAILER_SIZE);
+        buffer.putLong(tick);
+        buffer.putLong(eventCount);
+        buffer.putLong(engine.getScore());
+        buffer.putLong(engine.getLinesCleared());
+        buffer.putLong(engine.getPiecesPlaced());
+        buffer.putLong(engine.getBoard().contentHash());
+        buffer.putLong(indexStart);
+        buffer.putInt(keyframeCount);
+        buffer.putInt(Replay.TRAILER_MAGIC);
+        flush();
+        IO.execute(this::close);
+    }
+
+    public Path getFile() { return file; }
+
+    // それまでに渡した書き込みがすべて終わるまで待つ（終了時。書き込みは1スレッドで順に行うので空の処理を待てばよい）
+    public static void awaitWrites(long timeoutMillis) {
+        try {
+            IO.submit(() -> { }).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("リプレイの保存が終わりませんでした: " + e);
+        }
+    }
+
+    // 次に書くバイトのファイル内の位置
+    private long position() {
+        return flushedBytes + buffer.position();
+    }
+
+    // 残りが足りなければ書き込みスレッドに渡して新しいバッファに切り替える
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    // バッファをまたいで書き込む
+    private void append(ByteBuffer data) {
+        while (data.hasRemaining()) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int n = Math.min(buffer.remaining(), data.remaining());
+            int limit = data.limit();
+            data.limit(data.position() + n);
+            buffer.put(data);
+            data.limit(limit);
+        }
+    }
+
+    private void flush() {
+        ByteBuffer full = buffer;
+        full.flip();
+        flushedBytes += full.remaining();
+        ByteBuffer next = spare.poll();
+        buffer = next != null ? next : ByteBuffer.allocate(CHUNK_SIZE);
+        IO.execute(() -> write(full));
+    }
+
+    // --- 以下は書き込みスレッドで実行 ---
+
+    private void open() {
+        try {
+            Path dir = file.getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("リプレイの保存に失敗しました: " + e.getMessage());
+        }
+    }
+
+    private void write(ByteBuffer data) {
+        try {
+            if (channel != null) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("リプレイの保存に失敗しました: " + e.getMessage());
+            closeQuietly();
+        }
+        data.clear();
+        spare.offer(data);
+    }
+
+    private void close() {
+        closeQuietly();
+    }
+
+    private void discard() {
+        closeQuietly();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // 空のファイルが残るだけなので無視
+        }
+    }
+
+    private void closeQuietly() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("リプレイの保存に失敗しました: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
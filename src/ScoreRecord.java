@@ -0,0 +1,51 @@
+import java.nio.ByteBuffer;
+
+// 1ゲーム分の記録（スコアログの1レコード、固定長）
+public final class ScoreRecord {
+    static final int SIZE = 6 * 8;
+
+    private final long timestamp; // 終了時刻（エポックミリ秒）
+    private final long score;
+    private final long lines;
+    private final long pieces;
+    private final long ticks;     // プレイしたティック数
+    private final long seed;      // ミノ順のシード（リプレイとの照合用）
+
+    public ScoreRecord(long timestamp, long score, long lines, long pieces, long ticks, long seed) {
+        this.timestamp = timestamp;
+        this.score = score;
+        this.lines = lines;
+        this.pieces = pieces;
+        this.ticks = ticks;
+        this.seed = seed;
+    }
+
+    void write(ByteBuffer out) {
+        out.putLong(timestamp);
+        out.putLong(score);
+        out.putLong(lines);
+        out.putLong(pieces);
+        out.putLong(ticks);
+        out.putLong(seed);
+    }
+
+    static ScoreRecord read(ByteBuffer in) {
+        return new ScoreRecord(in.getLong(), in.getLong(), in.getLong(), in.getLong(), in.getLong(), in.getLong());
+    }
+
+    // ランキングの順（得点の高い順、同点なら先に出した方が上）
+    static int compareRank(ScoreRecord a, ScoreRecord b) {
+        if (a.score != b.score) {
+            return Long.compare(b.score, a.score);
+        }
+        return Long.compare(a.timestamp, b.timestamp);
+    }
+
+    // ゲッター
+    public long getTimestamp() { return timestamp; }
+    public long getScore() { return score; }
+    public long getLines() { return lines; }
+    public long getPieces() { return pieces; }
+    public long getTicks() { return ticks; }
+    public long getSeed() { return seed; }
+}
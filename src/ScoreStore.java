@@ -0,0 +1,353 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// スコアとプレイ統計の保存先。
+//   scores.log: 全ゲームの記録を追記するだけのログ（固定長レコード）
+//   scores.idx: 上位TOP_N件と統計をまとめた索引（定期的に作り直す。ここまでのログの長さを持つ）
+// 起動時は索引と、索引より後ろのログだけを読むので、ログが長くなっても読み込みは速い。
+// 書き込みは専用スレッドで行い、溜まった記録はまとめて1回のforceで書く（グループコミット）
+public class ScoreStore {
+    private static final int TOP_N = 100;               // 索引とキャッシュに持つ件数
+    private static final int COMPACT_INTERVAL = 1000;   // この件数追記するごとに索引を作り直す
+    private static final int BATCH = 256;               // 1回のコミットにまとめる最大件数
+    private static final int INDEX_MAGIC = 0x53545349;  // "STSI"
+    private static final int INDEX_VERSION = 1;
+    private static final ScoreRecord CLOSE = new ScoreRecord(0, 0, 0, 0, 0, 0); // 終了の合図
+
+    private static ScoreStore instance;
+
+    // ランキング画面に渡す内容（変更しないので描画スレッドからそのまま読める）
+    public static final class Leaderboard {
+        static final Leaderboard LOADING = new Leaderboard(Collections.emptyList(), 0, 0, 0, 0, false);
+
+        private final List<ScoreRecord> top;
+        private final long sessions;
+        private final long lines;
+        private final long pieces;
+        private final long ticks;
+        private final boolean loaded;
+
+        Leaderboard(List<ScoreRecord> top, long sessions, long lines, long pieces, long ticks, boolean loaded) {
+            this.top = top;
+            this.sessions = sessions;
+            this.lines = lines;
+            this.pieces = pieces;
+            this.ticks = ticks;
+            this.loaded = loaded;
+        }
+
+        public List<ScoreRecord> getTop() { return top; }
+        public long getSessions() { return sessions; }
+        public long getLines() { return lines; }
+        public long getPieces() { return pieces; }
+        public long getTicks() { return ticks; }
+        public boolean isLoaded() { return loaded; }
+    }
+
+    private final Path logFile;
+    private final Path indexFile;
+    private final LinkedBlockingQueue<ScoreRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile Leaderboard leaderboard = Leaderboard.LOADING;
+
+    // --- 書き込みスレッドだけが触る状態 ---
+    private FileChannel log;
+    private final ByteBuffer buffer = ByteBuffer.allocate(ScoreRecord.SIZE * BATCH);
+    private final List<ScoreRecord> batch = new ArrayList<>(BATCH);
+    private final List<ScoreRecord> top = new ArrayList<>(TOP_N + 1); // 得点の高い順
+    private long sessions;
+    private long totalLines;
+    private long totalPieces;
+    private long totalTicks;
+    private long logBytes;      // ログの長さ
+    private long indexedBytes;  // 索引に反映済みのログの長さ
+    private int sinceCompaction;
+
+    ScoreStore(Path logFile, Path indexFile) {
+        this.logFile = logFile;
+        this.indexFile = indexFile;
+        this.writer = new Thread(this::run, "ScoreStore");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static synchronized ScoreStore getInstance() {
+        if (instance == null) {
+            instance = new ScoreStore(Paths.get("scores.log"), Paths.get("scores.idx"));
+            ScoreStore store = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close));
+        }
+        return instance;
+    }
+
+    // 記録を追加（キューに入れるだけなのでディスクを待たない）
+    public void submit(ScoreRecord record) {
+        queue.offer(record);
+    }
+
+    // 現在のランキング（読み込み中ならisLoaded() == false）
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    // 溜まっている記録を書き終えるまで少し待ってから止める（終了時）
+    public void close() {
+        queue.offer(CLOSE);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- 以下は書き込みスレッドで実行 ---
+
+    private void run() {
+        try {
+            load();
+        } catch (IOException e) {
+            System.err.println("スコアの読み込みに失敗しました: " + e.getMessage());
+        }
+        publish();
+
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, BATCH - 1);
+            if (batch.remove(CLOSE)) {
+                closing = true;
+            }
+            if (!batch.isEmpty()) {
+                append(batch);
+                batch.clear();
+                publish();
+            }
+        }
+        if (sinceCompaction > 0) {
+            compact();
+        }
+        closeLog();
+    }
+
+    // 索引と、索引より後ろのログを読み込む
+    private void load() throws IOException {
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        logBytes = log.size();
+        long partial = logBytes % ScoreRecord.SIZE;
+        if (partial != 0) {
+            // 書き込み途中で終了した最後のレコードを捨てる
+            logBytes -= partial;
+            log.truncate(logBytes);
+        }
+
+        if (!readIndex()) {
+            top.clear();
+            sessions = 0;
+            totalLines = 0;
+            totalPieces = 0;
+            totalTicks = 0;
+            indexedBytes = 0;
+        }
+
+        // 索引に入っていない分だけログを読む
+        ByteBuffer chunk = ByteBuffer.allocate(ScoreRecord.SIZE * 1024);
+        long position = indexedBytes;
+        while (position < logBytes) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), logBytes - position));
+            while (chunk.hasRemaining()) {
+                if (log.read(chunk, position + chunk.position()) < 0) {
+                    throw new IOException("ログが途中で終わっています");
+                }
+            }
+            chunk.flip();
+            while (chunk.remaining() >= ScoreRecord.SIZE) {
+                add(ScoreRecord.read(chunk));
+                sinceCompaction++;
+            }
+            position += chunk.limit();
+        }
+        log.position(logBytes);
+
+        if (sinceCompaction >= COMPACT_INTERVAL) {
+            compact();
+        }
+    }
+
+    // 索引を読む（無い・壊れている・ログと合わない時はfalse）
+    private boolean readIndex() {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            if (in.getInt() != INDEX_MAGIC || in.getInt() != INDEX_VERSION) {
+                return false;
+            }
+            long covered = in.getLong();
+            if (covered > logBytes) {
+                return false; // ログが巻き戻っている
+            }
+            sessions = in.getLong();
+            totalLines = in.getLong();
+            totalPieces = in.getLong();
+            totalTicks = in.getLong();
+            int count = in.getInt();
+            top.clear();
+            for (int i = 0; i < count; i++) {
+                top.add(ScoreRecord.read(in));
+            }
+            indexedBytes = covered;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("スコアの索引を読み直します: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // まとめてログに追記して1回だけforceする。保存できなかった記録は統計にも索引にも入れない
+    // （索引はログのlogBytesまでの内容と一致していなければならない）
+    private void append(List<ScoreRecord> records) {
+        buffer.clear();
+        for (ScoreRecord record : records) {
+            record.write(buffer);
+        }
+        buffer.flip();
+        try {
+            if (log == null) {
+                throw new IOException("ログを開けませんでした");
+            }
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            System.err.println("スコアの保存に失敗しました: " + e.getMessage());
+            resync();
+            return;
+        }
+        logBytes += (long) records.size() * ScoreRecord.SIZE;
+        for (ScoreRecord record : records) {
+            add(record);
+        }
+        sinceCompaction += records.size();
+        if (sinceCompaction >= COMPACT_INTERVAL) {
+            compact();
+        }
+    }
+
+    // 途中まで書いたレコードを切り捨てて、最後に書き終えたレコードの直後に戻す
+    private void resync() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.truncate(logBytes);
+            log.position(logBytes);
+        } catch (IOException e) {
+            // 位置が分からないまま追記しないように、以後は保存しない（次の起動時に読み込みで直す）
+            System.err.println("スコアのログを戻せませんでした: " + e.getMessage());
+            closeLog();
+            log = null;
+        }
+    }
+
+    // 統計と上位の一覧に1件反映
+    private void add(ScoreRecord record) {
+        sessions++;
+        totalLines += record.getLines();
+        totalPieces += record.getPieces();
+        totalTicks += record.getTicks();
+
+        if (top.size() == TOP_N && ScoreRecord.compareRank(record, top.get(TOP_N - 1)) >= 0) {
+            return;
+        }
+        int lo = 0;
+        int hi = top.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ScoreRecord.compareRank(top.get(mid), record) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        top.add(lo, record);
+        if (top.size() > TOP_N) {
+            top.remove(TOP_N);
+        }
+    }
+
+    // 索引を一時ファイルに書いてから置き換える
+    private void compact() {
+        ByteBuffer out = ByteBuffer.allocate(4 + 4 + 8 * 5 + 4 + top.size() * ScoreRecord.SIZE);
+        out.putInt(INDEX_MAGIC);
+        out.putInt(INDEX_VERSION);
+        out.putLong(logBytes);
+        out.putLong(sessions);
+        out.putLong(totalLines);
+        out.putLong(totalPieces);
+        out.putLong(totalTicks);
+        out.putInt(top.size());
+        for (ScoreRecord record : top) {
+            record.write(out);
+        }
+        out.flip();
+
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            System.err.println("スコアの索引の保存に失敗しました: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e2) {
+                System.err.println("スコアの索引の保存に失敗しました: " + e2.getMessage());
+                return;
+            }
+        }
+        indexedBytes = logBytes;
+        sinceCompaction = 0;
+    }
+
+    // 画面用のキャッシュを作り直す
+    private void publish() {
+        leaderboard = new Leaderboard(Collections.unmodifiableList(new ArrayList<>(top)),
+                sessions, totalLines, totalPieces, totalTicks, true);
+    }
+
+    private void closeLog() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.err.println("スコアの保存に失敗しました: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// 画面なしで大量に自己対戦させて統計を出すコマンドライン（ルール調整・性能の回帰確認用）
+// 例: java -cp simpletetris.jar SelfPlay games=1000 threads=8 policy=heuristic seed=1
+public class SelfPlay {
+    // --- 設定（key=valueの引数で上書き） ---
+    private final int games;
+    private final int threads;
+    private final String policy;  // random / heuristic
+    private final long seed;      // ゲームiのミノ順はseed+iで決まる
+    private final int maxPieces;  // 1ゲームの上限（heuristicは終わらないことがあるため）
+    private final int cols;
+    private final int rows;
+    private final int gravity;
+
+    // --- ゲームごとの結果（スレッドごとに別の添字に書くのでロック不要） ---
+    private final long[] scores;
+    private final long[] lines;
+    private final long[] pieces;
+    private final long[] threadCpuNanos;
+
+    public SelfPlay(Map<String, String> options) {
+        games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        policy = options.getOrDefault("policy", "heuristic");
+        seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        maxPieces = Integer.parseInt(options.getOrDefault("maxPieces", "1000"));
+        cols = Integer.parseInt(options.getOrDefault("cols", "10"));
+        rows = Integer.parseInt(options.getOrDefault("rows", "20"));
+        gravity = GameEngine.gravityFromMillis(
+                Integer.parseInt(options.getOrDefault("gameSpeed", "500")), GameLoop.TICK_RATE);
+        scores = new long[games];
+        lines = new long[games];
+        pieces = new long[games];
+        threadCpuNanos = new long[Math.max(0, threads)];
+        createPolicy(seed); // 不明な方針なら実行前に例外
+    }
+
+    // 全ゲームを実行して経過時間（ナノ秒）を返す
+    public long run() throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> work(index), "SelfPlay-" + t);
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // スレッドtはゲームt, t+threads, t+threads*2...を担当（エンジンと方針はスレッドごとに持つ）
+    private void work(int t) {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long cpuStart = mx.isCurrentThreadCpuTimeSupported() ? mx.getCurrentThreadCpuTime() : System.nanoTime();
+        GameEngine engine = new GameEngine(cols, rows);
+        engine.setGravity(gravity);
+        for (int game = t; game < games; game += threads) {
+            PlayPolicy player = createPolicy(seed + game);
+            engine.reset(new PieceGenerator(seed + game, PieceGenerator.Mode.BAG7, 1));
+            while (!engine.isGameOver() && engine.getPiecesPlaced() < maxPieces) {
+                engine.step(player.nextInputs(engine));
+            }
+            scores[game] = engine.getScore();
+            lines[game] = engine.getLinesCleared();
+            pieces[game] = engine.getPiecesPlaced();
+        }
+        long cpuEnd = mx.isCurrentThreadCpuTimeSupported() ? mx.getCurrentThreadCpuTime() : System.nanoTime();
+        threadCpuNanos[t] = cpuEnd - cpuStart;
+    }
+
+    private PlayPolicy createPolicy(long gameSeed) {
+        switch (policy) {
+            case "random": return new RandomPolicy(gameSeed);
+            case "heuristic": return new BotPlayer(null); // 並列化はゲーム単位で行うので探索は1スレッド
+            default: throw new IllegalArgumentException("不明な方針です: " + policy);
+        }
+    }
+
+    // 集計結果を表示
+    public void report(long elapsedNanos) {
+        long totalPieces = sum(pieces);
+        long totalCpu = sum(threadCpuNanos);
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("方針 %s / %dゲーム / %dスレッド / %dx%d / シード %d%n",
+                policy, games, threads, cols, rows, seed);
+        System.out.printf("経過時間        %.2f秒%n", seconds);
+        System.out.printf("ライン/ゲーム    平均 %.1f%n", (double) sum(lines) / games);
+        System.out.printf("ミノ/ゲーム      平均 %.1f%n", (double) totalPieces / games);
+        printDistribution("得点", scores);
+        System.out.printf("ミノ/秒          全体 %.0f  コアあたり %.0f  (CPU時間あたり %.0f)%n",
+                totalPieces / seconds,
+                totalPieces / seconds / threads,
+                totalCpu == 0 ? 0.0 : totalPieces / (totalCpu / 1e9));
+    }
+
+    private static void printDistribution(String name, long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-14s  最小 %d  p10 %d  p50 %d  p90 %d  最大 %d  平均 %.1f%n",
+                name, sorted[0], percentile(sorted, 10), percentile(sorted, 50), percentile(sorted, 90),
+                sorted[sorted.length - 1], (double) sum(values) / values.length);
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long v : values) {
+            total += v;
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("引数は key=value の形で指定してください: " + arg);
+                System.exit(2);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        SelfPlay selfPlay = new SelfPlay(options);
+        if (selfPlay.games <= 0 || selfPlay.threads <= 0) {
+            System.err.println("gamesとthreadsは1以上にしてください");
+            System.exit(2);
+        }
+        selfPlay.report(selfPlay.run());
+    }
+}
@@ -16,32 +16,35 @@ public class SettingsPanel extends JPanel {
     private JLabel keyDownLabel;
     private JLabel keyRotateRightLabel;
     private JLabel keyRotateLeftLabel;
+    private JLabel keyHardDropLabel;
     
     // 音量スライダー
     private JSlider masterVolumeSlider;
     private JSlider bgmVolumeSlider;
     private JSlider seVolumeSlider;
     
+    // テーマの選択
+    private JComboBox<String> themeBox;
+    private JCheckBox fixedResolutionBox;
+    
     public SettingsPanel(CardLayout cardLayout, JPanel mainPanel) {
         this.cardLayout = cardLayout;
         this.mainPanel = mainPanel;
         this.settings = GameSettings.getInstance();
         
         setLayout(new BorderLayout());
-        setBackground(new Color(20, 20, 40));
+        UITheme.background(this, UITheme::background);
         
         // タイトル
         JLabel titleLabel = new JLabel("設定");
-        titleLabel.setFont(new Font("Yu Gothic", Font.BOLD, 32));
-        titleLabel.setForeground(Color.CYAN);
+        UITheme.text(titleLabel, Font.BOLD, 32, UITheme::accent);
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         titleLabel.setBorder(BorderFactory.createEmptyBorder(20, 0, 20, 0));
         
         // タブパネル
         JTabbedPane tabbedPane = new JTabbedPane();
-        tabbedPane.setFont(new Font("Yu Gothic", Font.BOLD, 16));
-        tabbedPane.setBackground(new Color(30, 30, 50));
-        tabbedPane.setForeground(Color.WHITE);
+        UITheme.text(tabbedPane, Font.BOLD, 16, UITheme::text);
+        UITheme.background(tabbedPane, UITheme::panel);
         
         // 各タブを追加
         tabbedPane.addTab("キー設定", createKeyConfigPanel());
@@ -50,7 +53,7 @@ public class SettingsPanel extends JPanel {
         
         // 下部のボタン
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 20));
-        bottomPanel.setBackground(new Color(20, 20, 40));
+        UITheme.background(bottomPanel, UITheme::background);
         
         JButton saveButton = createStyledButton("保存");
         JButton backButton = createStyledButton("戻る");
@@ -68,18 +71,41 @@ public class SettingsPanel extends JPanel {
         add(titleLabel, BorderLayout.NORTH);
         add(tabbedPane, BorderLayout.CENTER);
         add(bottomPanel, BorderLayout.SOUTH);
+
+        // 設定ファイルの再読み込みなどで設定が変わったら表示を合わせる
+        settings.addChangeListener((old, next) -> {
+            if (SwingUtilities.isEventDispatchThread()) {
+                refreshFromSettings(next);
+            } else {
+                SwingUtilities.invokeLater(() -> refreshFromSettings(settings.snapshot()));
+            }
+        });
+    }
+    
+    // 表示中のキーと音量を今の設定に合わせる
+    private void refreshFromSettings(SettingsSnapshot current) {
+        keyLeftLabel.setText(GameSettings.keyCodeToString(current.getKeyLeft()));
+        keyRightLabel.setText(GameSettings.keyCodeToString(current.getKeyRight()));
+        keyDownLabel.setText(GameSettings.keyCodeToString(current.getKeyDown()));
+        keyRotateRightLabel.setText(GameSettings.keyCodeToString(current.getKeyRotateRight()));
+        keyRotateLeftLabel.setText(GameSettings.keyCodeToString(current.getKeyRotateLeft()));
+        keyHardDropLabel.setText(GameSettings.keyCodeToString(current.getKeyHardDrop()));
+        masterVolumeSlider.setValue((int)(current.getVolumeMaster() * 100));
+        bgmVolumeSlider.setValue((int)(current.getVolumeBGM() * 100));
+        seVolumeSlider.setValue((int)(current.getVolumeSE() * 100));
+        themeBox.setSelectedItem(UITheme.named(current.getUiTheme()).getName());
+        fixedResolutionBox.setSelected(current.isFixedResolution());
     }
     
     // キー設定パネル
     private JPanel createKeyConfigPanel() {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-        panel.setBackground(new Color(30, 30, 50));
+        UITheme.background(panel, UITheme::panel);
         panel.setBorder(BorderFactory.createEmptyBorder(20, 40, 20, 40));
         
         JLabel infoLabel = new JLabel("変更したいキーのボタンをクリックして、新しいキーを押してください");
-        infoLabel.setFont(new Font("Yu Gothic", Font.PLAIN, 14));
-        infoLabel.setForeground(Color.YELLOW);
+        UITheme.text(infoLabel, Font.PLAIN, 14, UITheme::highlight);
         infoLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         panel.add(infoLabel);
         panel.add(Box.createRigidArea(new Dimension(0, 20)));
@@ -110,6 +136,11 @@ public class SettingsPanel extends JPanel {
             keyRotateLeftLabel.setText(GameSettings.keyCodeToString(key));
         }));
         
+        panel.add(createKeyConfigRow("ハードドロップ:", settings.getKeyHardDrop(), key -> {
+            settings.setKeyHardDrop(key);
+            keyHardDropLabel.setText(GameSettings.keyCodeToString(key));
+        }));
+        
         panel.add(Box.createVerticalGlue());
         
         return panel;
@@ -119,16 +150,14 @@ public class SettingsPanel extends JPanel {
     private JPanel createKeyConfigRow(String label, int initialKey, KeySetter setter) {
         JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT, 20, 10));
         row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 50));
-        row.setBackground(new Color(30, 30, 50));
+        UITheme.background(row, UITheme::panel);
         
         JLabel nameLabel = new JLabel(label);
-        nameLabel.setFont(new Font("Yu Gothic", Font.PLAIN, 18));
-        nameLabel.setForeground(Color.WHITE);
+        UITheme.text(nameLabel, Font.PLAIN, 18, UITheme::text);
         nameLabel.setPreferredSize(new Dimension(120, 30));
         
         JLabel keyLabel = new JLabel(GameSettings.keyCodeToString(initialKey));
-        keyLabel.setFont(new Font("Arial", Font.BOLD, 16));
-        keyLabel.setForeground(Color.CYAN);
+        UITheme.latinText(keyLabel, Font.BOLD, 16, UITheme::accent);
         keyLabel.setPreferredSize(new Dimension(150, 30));
         
         // どのキーのラベルかを記録
@@ -137,10 +166,9 @@ public class SettingsPanel extends JPanel {
         else if (label.contains("下移動")) keyDownLabel = keyLabel;
         else if (label.contains("右回転")) keyRotateRightLabel = keyLabel;
         else if (label.contains("左回転")) keyRotateLeftLabel = keyLabel;
+        else if (label.contains("ハードドロップ")) keyHardDropLabel = keyLabel;
         
-        JButton changeButton = new JButton("変更");
-        changeButton.setFont(new Font("Yu Gothic", Font.PLAIN, 14));
-        styleButton(changeButton);
+        JButton changeButton = UITheme.button(new JButton("変更"), Font.PLAIN, 14, false);
         
         changeButton.addActionListener(e -> {
             changeButton.setText("キーを押してください...");
@@ -152,7 +180,7 @@ public class SettingsPanel extends JPanel {
             dialog.setLocationRelativeTo(changeButton);
             
             JLabel dialogLabel = new JLabel("新しいキーを押してください", SwingConstants.CENTER);
-            dialogLabel.setFont(new Font("Yu Gothic", Font.BOLD, 16));
+            dialogLabel.setFont(UITheme.font(Font.BOLD, 16));
             dialog.add(dialogLabel);
             
             dialog.addKeyListener(new KeyAdapter() {
@@ -182,7 +210,7 @@ public class SettingsPanel extends JPanel {
     private JPanel createVolumePanel() {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-        panel.setBackground(new Color(30, 30, 50));
+        UITheme.background(panel, UITheme::panel);
         panel.setBorder(BorderFactory.createEmptyBorder(40, 60, 40, 60));
         
         // マスター音量
@@ -223,15 +251,14 @@ public class SettingsPanel extends JPanel {
         JPanel row = new JPanel();
         row.setLayout(new BoxLayout(row, BoxLayout.Y_AXIS));
         row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 80));
-        row.setBackground(new Color(30, 30, 50));
+        UITheme.background(row, UITheme::panel);
         
         JLabel nameLabel = new JLabel(label);
-        nameLabel.setFont(new Font("Yu Gothic", Font.PLAIN, 18));
-        nameLabel.setForeground(Color.WHITE);
+        UITheme.text(nameLabel, Font.PLAIN, 18, UITheme::text);
         nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         JPanel sliderPanel = new JPanel(new BorderLayout());
-        sliderPanel.setBackground(new Color(30, 30, 50));
+        UITheme.background(sliderPanel, UITheme::panel);
         sliderPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
         
         JSlider slider = new JSlider(0, 100, (int)(initialVolume * 100));
@@ -239,12 +266,11 @@ public class SettingsPanel extends JPanel {
         slider.setMinorTickSpacing(5);
         slider.setPaintTicks(true);
         slider.setPaintLabels(true);
-        slider.setBackground(new Color(30, 30, 50));
-        slider.setForeground(Color.WHITE);
+        UITheme.background(slider, UITheme::panel);
+        UITheme.bind(slider, t -> slider.setForeground(t.text()));
         
         JLabel valueLabel = new JLabel(String.format("%d%%", (int)(initialVolume * 100)));
-        valueLabel.setFont(new Font("Arial", Font.BOLD, 16));
-        valueLabel.setForeground(Color.CYAN);
+        UITheme.latinText(valueLabel, Font.BOLD, 16, UITheme::accent);
         valueLabel.setPreferredSize(new Dimension(50, 30));
         
         slider.addChangeListener(e -> {
@@ -267,26 +293,55 @@ public class SettingsPanel extends JPanel {
     private JPanel createGraphicsPanel() {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-        panel.setBackground(new Color(30, 30, 50));
+        UITheme.background(panel, UITheme::panel);
         panel.setBorder(BorderFactory.createEmptyBorder(40, 60, 40, 60));
         
         // 説明文
         JLabel titleLabel = new JLabel("表示設定");
-        titleLabel.setFont(new Font("Yu Gothic", Font.BOLD, 24));
-        titleLabel.setForeground(Color.CYAN);
+        UITheme.text(titleLabel, Font.BOLD, 24, UITheme::accent);
         titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         panel.add(titleLabel);
         panel.add(Box.createRigidArea(new Dimension(0, 30)));
         
+        // テーマ（選ぶとすぐに全画面へ反映）
+        JPanel themeRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 20, 0));
+        themeRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+        themeRow.setAlignmentX(Component.LEFT_ALIGNMENT);
+        UITheme.background(themeRow, UITheme::panel);
+        
+        JLabel themeLabel = new JLabel("テーマ:");
+        UITheme.text(themeLabel, Font.BOLD, 16, UITheme::text);
+        
+        themeBox = new JComboBox<>(new String[] {
+            UITheme.NAVY.getName(), UITheme.DARK.getName(), UITheme.LIGHT.getName()
+        });
+        themeBox.setFont(UITheme.latinFont(Font.PLAIN, 14));
+        themeBox.setSelectedItem(UITheme.named(settings.getUiTheme()).getName());
+        themeBox.addActionListener(e -> settings.setUiTheme((String) themeBox.getSelectedItem()));
+        
+        themeRow.add(themeLabel);
+        themeRow.add(themeBox);
+        panel.add(themeRow);
+        panel.add(Box.createRigidArea(new Dimension(0, 15)));
+        
+        // 固定解像度（screenWidth x screenHeightで描いてから画面に合わせて拡大縮小）
+        fixedResolutionBox = new JCheckBox("固定解像度で描画");
+        UITheme.text(fixedResolutionBox, Font.BOLD, 16, UITheme::text);
+        UITheme.background(fixedResolutionBox, UITheme::panel);
+        fixedResolutionBox.setFocusPainted(false);
+        fixedResolutionBox.setAlignmentX(Component.LEFT_ALIGNMENT);
+        fixedResolutionBox.setSelected(settings.isFixedResolution());
+        fixedResolutionBox.addActionListener(e -> settings.setFixedResolution(fixedResolutionBox.isSelected()));
+        panel.add(fixedResolutionBox);
+        panel.add(Box.createRigidArea(new Dimension(0, 30)));
+        
         JLabel infoLabel1 = new JLabel("■ ウィンドウサイズの変更");
-        infoLabel1.setFont(new Font("Yu Gothic", Font.BOLD, 16));
-        infoLabel1.setForeground(Color.WHITE);
+        UITheme.text(infoLabel1, Font.BOLD, 16, UITheme::text);
         infoLabel1.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         JLabel infoLabel2 = new JLabel("  ウィンドウの端をドラッグして自由にサイズ変更できます");
-        infoLabel2.setFont(new Font("Yu Gothic", Font.PLAIN, 14));
-        infoLabel2.setForeground(new Color(200, 200, 200));
+        UITheme.text(infoLabel2, Font.PLAIN, 14, UITheme::subText);
         infoLabel2.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         panel.add(infoLabel1);
@@ -295,13 +350,11 @@ public class SettingsPanel extends JPanel {
         panel.add(Box.createRigidArea(new Dimension(0, 30)));
         
         JLabel infoLabel3 = new JLabel("■ フルスクリーン");
-        infoLabel3.setFont(new Font("Yu Gothic", Font.BOLD, 16));
-        infoLabel3.setForeground(Color.WHITE);
+        UITheme.text(infoLabel3, Font.BOLD, 16, UITheme::text);
         infoLabel3.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         JLabel infoLabel4 = new JLabel("  F11キーでフルスクリーンと通常モードを切り替えられます");
-        infoLabel4.setFont(new Font("Yu Gothic", Font.PLAIN, 14));
-        infoLabel4.setForeground(new Color(200, 200, 200));
+        UITheme.text(infoLabel4, Font.PLAIN, 14, UITheme::subText);
         infoLabel4.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         panel.add(infoLabel3);
@@ -310,13 +363,11 @@ public class SettingsPanel extends JPanel {
         panel.add(Box.createRigidArea(new Dimension(0, 30)));
         
         JLabel infoLabel5 = new JLabel("■ 今後の追加予定");
-        infoLabel5.setFont(new Font("Yu Gothic", Font.BOLD, 16));
-        infoLabel5.setForeground(Color.WHITE);
+        UITheme.text(infoLabel5, Font.BOLD, 16, UITheme::text);
         infoLabel5.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         JLabel infoLabel6 = new JLabel("  盤面のマス数変更などの機能を追加予定です");
-        infoLabel6.setFont(new Font("Yu Gothic", Font.PLAIN, 14));
-        infoLabel6.setForeground(new Color(200, 200, 200));
+        UITheme.text(infoLabel6, Font.PLAIN, 14, UITheme::subText);
         infoLabel6.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         panel.add(infoLabel5);
@@ -328,31 +379,11 @@ public class SettingsPanel extends JPanel {
         return panel;
     }
     
-    // ボタンのスタイル設定
-    private void styleButton(JButton button) {
-        button.setForeground(Color.WHITE);
-        button.setBackground(new Color(50, 50, 100));
-        button.setFocusPainted(false);
-        button.setBorder(BorderFactory.createLineBorder(Color.CYAN, 2));
-    }
-    
-    // スタイル付きボタンを作成
+    // スタイル付きボタンを作成（色と枠線はテーマから）
     private JButton createStyledButton(String text) {
         JButton button = new JButton(text);
-        button.setFont(new Font("Yu Gothic", Font.BOLD, 18));
         button.setPreferredSize(new Dimension(150, 50));
-        styleButton(button);
-        
-        button.addMouseListener(new java.awt.event.MouseAdapter() {
-            public void mouseEntered(java.awt.event.MouseEvent evt) {
-                button.setBackground(new Color(70, 70, 120));
-            }
-            public void mouseExited(java.awt.event.MouseEvent evt) {
-                button.setBackground(new Color(50, 50, 100));
-            }
-        });
-        
-        return button;
+        return UITheme.button(button, Font.BOLD, 18, false);
     }
     
     // 関数型インターフェース
@@ -0,0 +1,279 @@
+import java.awt.event.KeyEvent;
+import java.util.Objects;
+import java.util.Properties;
+
+// ある時点の設定値（変更しない）。変更はBuilderで複製を作ってGameSettingsに差し替えてもらう。
+// どのスレッドからでもロックなしで読めて、1つのスナップショットの中の値は必ず揃っている
+public final class SettingsSnapshot {
+    static final SettingsSnapshot DEFAULTS = new Builder().build();
+
+    // キー設定
+    private final int keyLeft;
+    private final int keyRight;
+    private final int keyDown;
+    private final int keyHardDrop;    // ハードドロップ
+    private final int keyRotateRight;
+    private final int keyRotateLeft;
+    private final int keyHold;        // 今後の拡張用（ホールド機能）
+    private final int das;            // 押しっぱなしで連続移動が始まるまで（ミリ秒）
+    private final int arr;            // 連続移動の間隔（ミリ秒）
+
+    // 音量設定（0.0～1.0）
+    private final float volumeMaster;
+    private final float volumeBGM;
+    private final float volumeSE;
+
+    // 画質設定
+    private final int tileSize;       // ブロックのサイズ
+    private final int boardCols;      // 横のマス数
+    private final int boardRows;      // 縦のマス数
+    private final int minTileSize;    // 盤面が画面に収まらない時のブロックの最小サイズ（スクロール表示）
+    private final int screenWidth;    // 画面の幅
+    private final int screenHeight;   // 画面の高さ
+    private final boolean fixedResolution; // ゲーム画面をscreenWidth×screenHeightで描いて拡大・縮小するか
+    private final String renderMode;  // 描画方式（SWING: repaint / ACTIVE: BufferStrategy）
+    private final int bufferCount;    // ACTIVE時のバッファ数（2～3）
+    private final String perfLogFile; // 終了時に計測結果を書き出すファイル（空なら書き出さない）
+    private final String uiTheme;     // 画面のテーマ（NAVY / DARK / LIGHT）
+
+    // ゲーム設定
+    private final int gameSpeed;      // 落下速度（ミリ秒）
+    private final String randomizer;  // ミノの抽選方式（BAG7 / UNIFORM）
+    private final long randomSeed;    // 乱数シード（0なら毎回ランダム）
+    private final String replayDir;   // リプレイを保存するフォルダ（空なら保存しない）
+
+    private SettingsSnapshot(Builder b) {
+        keyLeft = b.keyLeft;
+        keyRight = b.keyRight;
+        keyDown = b.keyDown;
+        keyHardDrop = b.keyHardDrop;
+        keyRotateRight = b.keyRotateRight;
+        keyRotateLeft = b.keyRotateLeft;
+        keyHold = b.keyHold;
+        das = b.das;
+        arr = b.arr;
+        volumeMaster = clampVolume(b.volumeMaster);
+        volumeBGM = clampVolume(b.volumeBGM);
+        volumeSE = clampVolume(b.volumeSE);
+        tileSize = b.tileSize;
+        boardCols = b.boardCols;
+        boardRows = b.boardRows;
+        minTileSize = Math.max(1, b.minTileSize);
+        screenWidth = b.screenWidth;
+        screenHeight = b.screenHeight;
+        fixedResolution = b.fixedResolution;
+        renderMode = b.renderMode;
+        bufferCount = Math.max(2, Math.min(3, b.bufferCount));
+        perfLogFile = b.perfLogFile;
+        uiTheme = b.uiTheme;
+        gameSpeed = b.gameSpeed;
+        randomizer = b.randomizer;
+        randomSeed = b.randomSeed;
+        replayDir = b.replayDir;
+    }
+
+    private static float clampVolume(float volume) {
+        return Math.max(0.0f, Math.min(1.0f, volume));
+    }
+
+    // 設定ファイルの内容から作る（書式が正しくなければNumberFormatException）
+    static SettingsSnapshot fromProperties(Properties props) {
+        Builder b = new Builder();
+        b.keyLeft = Integer.parseInt(props.getProperty("keyLeft", String.valueOf(KeyEvent.VK_LEFT)));
+        b.keyRight = Integer.parseInt(props.getProperty("keyRight", String.valueOf(KeyEvent.VK_RIGHT)));
+        b.keyDown = Integer.parseInt(props.getProperty("keyDown", String.valueOf(KeyEvent.VK_DOWN)));
+        // 以前はkeySoftDropの名前で保存していたので、無ければそちらを読む
+        b.keyHardDrop = Integer.parseInt(props.getProperty("keyHardDrop",
+                props.getProperty("keySoftDrop", String.valueOf(KeyEvent.VK_SPACE))));
+        b.keyRotateRight = Integer.parseInt(props.getProperty("keyRotateRight", String.valueOf(KeyEvent.VK_X)));
+        b.keyRotateLeft = Integer.parseInt(props.getProperty("keyRotateLeft", String.valueOf(KeyEvent.VK_Z)));
+        b.keyHold = Integer.parseInt(props.getProperty("keyHold", String.valueOf(KeyEvent.VK_C)));
+        b.das = Integer.parseInt(props.getProperty("das", "170"));
+        b.arr = Integer.parseInt(props.getProperty("arr", "50"));
+
+        b.volumeMaster = Float.parseFloat(props.getProperty("volumeMaster", "0.0"));
+        b.volumeBGM = Float.parseFloat(props.getProperty("volumeBGM", "0.7"));
+        b.volumeSE = Float.parseFloat(props.getProperty("volumeSE", "0.8"));
+
+        b.tileSize = Integer.parseInt(props.getProperty("tileSize", "30"));
+        b.boardCols = Integer.parseInt(props.getProperty("boardCols", "10"));
+        b.boardRows = Integer.parseInt(props.getProperty("boardRows", "20"));
+        b.minTileSize = Integer.parseInt(props.getProperty("minTileSize", "16"));
+        b.gameSpeed = Integer.parseInt(props.getProperty("gameSpeed", "500"));
+        b.screenWidth = Integer.parseInt(props.getProperty("screenWidth", "1920"));
+        b.screenHeight = Integer.parseInt(props.getProperty("screenHeight", "1080"));
+        b.fixedResolution = Boolean.parseBoolean(props.getProperty("fixedResolution", "false"));
+        b.renderMode = props.getProperty("renderMode", "SWING");
+        b.bufferCount = Integer.parseInt(props.getProperty("bufferCount", "2"));
+        b.perfLogFile = props.getProperty("perfLogFile", "");
+        b.uiTheme = props.getProperty("uiTheme", "NAVY");
+        b.randomizer = props.getProperty("randomizer", "BAG7");
+        b.randomSeed = Long.parseLong(props.getProperty("randomSeed", "0"));
+        b.replayDir = props.getProperty("replayDir", "");
+        return b.build();
+    }
+
+    // 設定ファイルに書く内容
+    Properties toProperties() {
+        Properties props = new Properties();
+
+        props.setProperty("keyLeft", String.valueOf(keyLeft));
+        props.setProperty("keyRight", String.valueOf(keyRight));
+        props.setProperty("keyDown", String.valueOf(keyDown));
+        props.setProperty("keyHardDrop", String.valueOf(keyHardDrop));
+        props.setProperty("keyRotateRight", String.valueOf(keyRotateRight));
+        props.setProperty("keyRotateLeft", String.valueOf(keyRotateLeft));
+        props.setProperty("keyHold", String.valueOf(keyHold));
+        props.setProperty("das", String.valueOf(das));
+        props.setProperty("arr", String.valueOf(arr));
+
+        props.setProperty("volumeMaster", String.valueOf(volumeMaster));
+        props.setProperty("volumeBGM", String.valueOf(volumeBGM));
+        props.setProperty("volumeSE", String.valueOf(volumeSE));
+
+        props.setProperty("tileSize", String.valueOf(tileSize));
+        props.setProperty("boardCols", String.valueOf(boardCols));
+        props.setProperty("boardRows", String.valueOf(boardRows));
+        props.setProperty("minTileSize", String.valueOf(minTileSize));
+        props.setProperty("gameSpeed", String.valueOf(gameSpeed));
+        props.setProperty("screenWidth", String.valueOf(screenWidth));
+        props.setProperty("screenHeight", String.valueOf(screenHeight));
+        props.setProperty("fixedResolution", String.valueOf(fixedResolution));
+        props.setProperty("renderMode", renderMode);
+        props.setProperty("bufferCount", String.valueOf(bufferCount));
+        props.setProperty("perfLogFile", perfLogFile);
+        props.setProperty("uiTheme", uiTheme);
+        props.setProperty("randomizer", randomizer);
+        props.setProperty("randomSeed", String.valueOf(randomSeed));
+        props.setProperty("replayDir", replayDir);
+        return props;
+    }
+
+    // この値を元に一部だけ変えたスナップショットを作る
+    Builder toBuilder() {
+        Builder b = new Builder();
+        b.keyLeft = keyLeft;
+        b.keyRight = keyRight;
+        b.keyDown = keyDown;
+        b.keyHardDrop = keyHardDrop;
+        b.keyRotateRight = keyRotateRight;
+        b.keyRotateLeft = keyRotateLeft;
+        b.keyHold = keyHold;
+        b.das = das;
+        b.arr = arr;
+        b.volumeMaster = volumeMaster;
+        b.volumeBGM = volumeBGM;
+        b.volumeSE = volumeSE;
+        b.tileSize = tileSize;
+        b.boardCols = boardCols;
+        b.boardRows = boardRows;
+        b.minTileSize = minTileSize;
+        b.screenWidth = screenWidth;
+        b.screenHeight = screenHeight;
+        b.fixedResolution = fixedResolution;
+        b.renderMode = renderMode;
+        b.bufferCount = bufferCount;
+        b.perfLogFile = perfLogFile;
+        b.uiTheme = uiTheme;
+        b.gameSpeed = gameSpeed;
+        b.randomizer = randomizer;
+        b.randomSeed = randomSeed;
+        b.replayDir = replayDir;
+        return b;
+    }
+
+    // 組み立て用（初期値はデフォルト設定）
+    static final class Builder {
+        int keyLeft = KeyEvent.VK_LEFT;
+        int keyRight = KeyEvent.VK_RIGHT;
+        int keyDown = KeyEvent.VK_DOWN;
+        int keyHardDrop = KeyEvent.VK_SPACE;
+        int keyRotateRight = KeyEvent.VK_X;
+        int keyRotateLeft = KeyEvent.VK_Z;
+        int keyHold = KeyEvent.VK_C;
+        int das = 170;
+        int arr = 50;
+        float volumeMaster = 0.0f; // 初期はミュート
+        float volumeBGM = 0.7f;
+        float volumeSE = 0.8f;
+        int tileSize = 30;
+        int boardCols = 10;
+        int boardRows = 20;
+        int minTileSize = 16;
+        int screenWidth = 1920;
+        int screenHeight = 1080;
+        boolean fixedResolution = false;
+        String renderMode = "SWING";
+        int bufferCount = 2;
+        String perfLogFile = "";
+        String uiTheme = "NAVY";
+        int gameSpeed = 500;
+        String randomizer = "BAG7";
+        long randomSeed = 0;
+        String replayDir = "";
+
+        SettingsSnapshot build() {
+            return new SettingsSnapshot(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SettingsSnapshot)) {
+            return false;
+        }
+        SettingsSnapshot s = (SettingsSnapshot) o;
+        return keyLeft == s.keyLeft && keyRight == s.keyRight && keyDown == s.keyDown
+                && keyHardDrop == s.keyHardDrop && keyRotateRight == s.keyRotateRight
+                && keyRotateLeft == s.keyRotateLeft && keyHold == s.keyHold && das == s.das && arr == s.arr
+                && volumeMaster == s.volumeMaster && volumeBGM == s.volumeBGM && volumeSE == s.volumeSE
+                && tileSize == s.tileSize && boardCols == s.boardCols && boardRows == s.boardRows
+                && minTileSize == s.minTileSize && screenWidth == s.screenWidth && screenHeight == s.screenHeight
+                && fixedResolution == s.fixedResolution && Objects.equals(renderMode, s.renderMode)
+                && bufferCount == s.bufferCount
+                && Objects.equals(perfLogFile, s.perfLogFile) && Objects.equals(uiTheme, s.uiTheme)
+                && gameSpeed == s.gameSpeed
+                && Objects.equals(randomizer, s.randomizer) && randomSeed == s.randomSeed
+                && Objects.equals(replayDir, s.replayDir);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyLeft, keyRight, keyDown, keyHardDrop, keyRotateRight, keyRotateLeft, keyHold, das, arr,
+                volumeMaster, volumeBGM, volumeSE, tileSize, boardCols, boardRows, minTileSize, screenWidth,
+                screenHeight, fixedResolution, renderMode, bufferCount, perfLogFile, uiTheme, gameSpeed, randomizer,
+                randomSeed, replayDir);
+    }
+
+    // ゲッター
+    public int getKeyLeft() { return keyLeft; }
+    public int getKeyRight() { return keyRight; }
+    public int getKeyDown() { return keyDown; }
+    public int getKeyHardDrop() { return keyHardDrop; }
+    public int getKeyRotateRight() { return keyRotateRight; }
+    public int getKeyRotateLeft() { return keyRotateLeft; }
+    public int getKeyHold() { return keyHold; }
+    public int getDas() { return das; }
+    public int getArr() { return arr; }
+    public float getVolumeMaster() { return volumeMaster; }
+    public float getVolumeBGM() { return volumeBGM; }
+    public float getVolumeSE() { return volumeSE; }
+    public int getTileSize() { return tileSize; }
+    public int getBoardCols() { return boardCols; }
+    public int getBoardRows() { return boardRows; }
+    public int getMinTileSize() { return minTileSize; }
+    public int getScreenWidth() { return screenWidth; }
+    public int getScreenHeight() { return screenHeight; }
+    public boolean isFixedResolution() { return fixedResolution; }
+    public String getRenderMode() { return renderMode; }
+    public int getBufferCount() { return bufferCount; }
+    public String getPerfLogFile() { return perfLogFile; }
+    public String getUiTheme() { return uiTheme; }
+    public int getGameSpeed() { return gameSpeed; }
+    public String getRandomizer() { return randomizer; }
+    public long getRandomSeed() { return randomSeed; }
+    public String getReplayDir() { return replayDir; }
+}
@@ -3,32 +3,38 @@ import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
-import java.awt.event.KeyAdapter;
 
 public class SimpleTetris extends JFrame {
-    private CardLayout cardLayout;
+    private static final int WARMUP_PIECES = 100; // ウォームアップで置くミノの数
+
+    private LazyCardLayout cardLayout;
     private JPanel mainPanel;
-    private GamePanel gamePanel;
     private boolean isFullScreen = false;
-    private Rectangle normalBounds; // フルスクリーン前のウィンドウサイズを保存
+    private JFrame fullScreenFrame; // 枠なしのフルスクリーン用ウィンドウ（一度作ったら隠すだけで破棄しない）
 
     public SimpleTetris() {
+        long start = System.nanoTime();
         setTitle("Simple Tetris");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setResizable(true); // リサイズ可能にする
 
-        // CardLayoutで画面を切り替え
-        cardLayout = new CardLayout();
-        mainPanel = new JPanel(cardLayout);
+        // CardLayoutで画面を切り替え（タイトル以外は最初に表示する時に作る）
+        cardLayout = new LazyCardLayout();
+        mainPanel = new JPanel(cardLayout) {
+            @Override
+            protected void paintChildren(Graphics g) {
+                super.paintChildren(g);
+                if (StartupTimer.firstFrame()) {
+                    startWarmup();
+                }
+            }
+        };
 
-        // 各画面を作成して追加
         TitlePanel titlePanel = new TitlePanel(cardLayout, mainPanel, this);
-        SettingsPanel settingsPanel = new SettingsPanel(cardLayout, mainPanel);
-        gamePanel = new GamePanel(cardLayout, mainPanel);
-
         mainPanel.add(titlePanel, "title");
-        mainPanel.add(settingsPanel, "settings");
-        mainPanel.add(gamePanel, "game");
+        cardLayout.register("settings", () -> new SettingsPanel(cardLayout, mainPanel));
+        cardLayout.register("leaderboard", () -> new LeaderboardPanel(cardLayout, mainPanel));
+        cardLayout.register("game", () -> new GamePanel(cardLayout, mainPanel));
         
         // 初期サイズを控えめに設定（どのモニターでも表示できるサイズ）
         mainPanel.setPreferredSize(new Dimension(800, 600));
@@ -41,71 +47,133 @@ public class SimpleTetris extends JFrame {
         setLocationRelativeTo(null);
         setVisible(true);
         
-        // F11キーでフルスクリーン切り替え
-        addKeyListener(new KeyAdapter() {
+        // F11キーでフルスクリーン切り替え（どの画面にフォーカスがあっても効くようにmainPanelに登録）
+        mainPanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_F11, 0), "toggleFullScreen");
+        mainPanel.getActionMap().put("toggleFullScreen", new AbstractAction() {
             @Override
-            public void keyPressed(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_F11) {
-                    toggleFullScreen();
-                }
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                toggleFullScreen();
             }
         });
         
         // タイトル画面にフォーカスを当てる
         titlePanel.requestFocusInWindow();
+        StartupTimer.phase("ウィンドウ作成", start);
+    }
+    
+    // タイトル画面を表示している間に、ゲームの処理を一度動かしてからゲーム画面を作っておく
+    private void startWarmup() {
+        Thread warmup = new Thread(() -> {
+            long start = System.nanoTime();
+            ScoreStore.getInstance(); // ランキングの読み込みも始めておく
+            SettingsSnapshot settings = GameSettings.getInstance().snapshot();
+            GameEngine engine = new GameEngine(settings.getBoardCols(), settings.getBoardRows());
+            BotPlayer bot = new BotPlayer(null);
+            engine.reset(new PieceGenerator(1, PieceGenerator.Mode.BAG7, 1));
+            while (!engine.isGameOver() && engine.getPiecesPlaced() < WARMUP_PIECES) {
+                engine.step(bot.nextInputs(engine));
+            }
+            StartupTimer.phase("ウォームアップ", start);
+            SwingUtilities.invokeLater(() -> {
+                cardLayout.prepare(mainPanel, "game");
+                createFullScreenFrame(); // 最初のF11で待たないようにウィンドウも作っておく
+            });
+        }, "Warmup");
+        warmup.setDaemon(true);
+        warmup.setPriority(Thread.MIN_PRIORITY);
+        warmup.start();
+    }
+    
+    // 枠なしのウィンドウを作る（ネイティブのウィンドウもここで作り、以後は表示・非表示だけ切り替える）
+    private void createFullScreenFrame() {
+        if (fullScreenFrame != null) {
+            return;
+        }
+        fullScreenFrame = new JFrame(getTitle());
+        fullScreenFrame.setUndecorated(true);
+        fullScreenFrame.setDefaultCloseOperation(EXIT_ON_CLOSE);
+        fullScreenFrame.getContentPane().setBackground(Color.BLACK);
+        fullScreenFrame.pack();
     }
     
     // フルスクリーン切り替え
+    // 画面（mainPanel）を枠なしの画面サイズのウィンドウと通常のウィンドウの間で移し替える。
+    // どちらのウィンドウもdispose()しないので、切り替えのたびにネイティブのウィンドウを作り直さない
+    // （ACTIVE描画のCanvasだけは付け替えでピアが作り直され、GameCanvas.addNotifyでバッファも作り直す）
     public void toggleFullScreen() {
-        GraphicsDevice device = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+        Component focused = KeyboardFocusManager.getCurrentKeyboardFocusManager().getFocusOwner();
+        createFullScreenFrame();
         
         if (!isFullScreen) {
-            // 通常モード→フルスクリーンモード
-            normalBounds = getBounds(); // 現在のサイズを保存
-            dispose(); // ウィンドウを一時的に破棄
-            setUndecorated(true); // タイトルバーを非表示
-            setResizable(false); // リサイズ不可
-            
-            if (device.isFullScreenSupported()) {
-                device.setFullScreenWindow(this);
-            } else {
-                // フルスクリーン非対応の場合は最大化
-                setExtendedState(JFrame.MAXIMIZED_BOTH);
-            }
-            
-            setVisible(true);
+            // 通常モード→フルスクリーンモード（今ウィンドウがあるモニター全体に広げる）
+            Rectangle screen = getGraphicsConfiguration().getBounds();
+            getContentPane().remove(mainPanel);
+            fullScreenFrame.getContentPane().add(mainPanel);
+            fullScreenFrame.setBounds(screen);
+            fullScreenFrame.validate();
+            fullScreenFrame.setVisible(true);
+            setVisible(false); // 隠すだけなので元のサイズと位置はそのまま
             isFullScreen = true;
         } else {
             // フルスクリーンモード→通常モード
-            if (device.getFullScreenWindow() == this) {
-                device.setFullScreenWindow(null);
-            }
-            dispose();
-            setUndecorated(false); // タイトルバーを表示
-            setResizable(true); // リサイズ可能
-            setBounds(normalBounds); // 元のサイズに戻す
+            fullScreenFrame.getContentPane().remove(mainPanel);
+            getContentPane().add(mainPanel);
+            validate();
             setVisible(true);
+            fullScreenFrame.setVisible(false);
             isFullScreen = false;
         }
         
         // フォーカスを戻す
-        requestFocus();
+        if (focused != null && SwingUtilities.isDescendingFrom(focused, mainPanel)) {
+            focused.requestFocusInWindow();
+        } else {
+            mainPanel.requestFocusInWindow();
+        }
     }
     
     // ゲームを開始するメソッド
     public void startNewGame() {
+        GamePanel gamePanel = (GamePanel) cardLayout.prepare(mainPanel, "game");
         gamePanel.startGame();
         cardLayout.show(mainPanel, "game");
         gamePanel.requestFocusInWindow();
     }
 
+    // 設定のテーマを画面に当てて、設定が変わったら切り替える
+    private static void followTheme(GameSettings settings) {
+        SwingUtilities.invokeLater(() -> UITheme.setCurrent(UITheme.named(settings.getUiTheme())));
+        settings.addChangeListener((old, next) -> {
+            if (UITheme.named(next.getUiTheme()) != UITheme.named(old.getUiTheme())) {
+                SwingUtilities.invokeLater(() -> UITheme.setCurrent(UITheme.named(next.getUiTheme())));
+            }
+        });
+    }
+
     public static void main(String[] args) {
+        StartupTimer.begin();
+        
+        // 設定ファイルは画面の準備と並行して読み込む（使う側はgetInstanceで読み終わるのを待つ）
+        Thread settingsLoader = new Thread(() -> {
+            long start = System.nanoTime();
+            UITheme.font(Font.PLAIN, 12); // 使えるフォントの検索もEDTより先に済ませておく
+            StartupTimer.phase("フォントの検索", start);
+            start = System.nanoTime();
+            GameSettings settings = GameSettings.getInstance();
+            StartupTimer.phase("設定の読み込み", start);
+            followTheme(settings);
+        }, "SettingsLoader");
+        settingsLoader.start();
+        
         // Look and Feelを設定（オプション）
+        long start = System.nanoTime();
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
             // デフォルトのLook and Feelを使用
         }
+        StartupTimer.phase("Look and Feel", start);
         
         SwingUtilities.invokeLater(() -> new SimpleTetris());
     }
@@ -0,0 +1,30 @@
+// 起動の各段階にかかった時間を表示する（起動時間の計測用）
+public final class StartupTimer {
+    private static final long START = System.nanoTime(); // mainの最初で初期化する
+    private static boolean firstFrameLogged; // EDTだけが触る
+
+    private StartupTimer() {
+    }
+
+    // 計測を開始（mainの最初で呼ぶ）
+    static void begin() {
+        phase("main開始", START);
+    }
+
+    // startNanosから今までを1つの段階として表示
+    static void phase(String name, long startNanos) {
+        long now = System.nanoTime();
+        System.out.printf("[起動] %-16s %7.1f ms  (開始から %7.1f ms)%n",
+                name, (now - startNanos) / 1e6, (now - START) / 1e6);
+    }
+
+    // 最初の画面が描かれた時に1回だけ表示して、初回ならtrue（EDTで呼ぶ）
+    static boolean firstFrame() {
+        if (firstFrameLogged) {
+            return false;
+        }
+        firstFrameLogged = true;
+        System.out.printf("[起動] 最初の描画まで %.1f ms%n", (System.nanoTime() - START) / 1e6);
+        return true;
+    }
+}
@@ -0,0 +1,159 @@
+public final class Tetromino {
+    // 7種類のミノの番号（色番号は番号+1）
+    public static final int I = 0;
+    public static final int O = 1;
+    public static final int T = 2;
+    public static final int S = 3;
+    public static final int Z = 4;
+    public static final int J = 5;
+    public static final int L = 6;
+    public static final int COUNT = 7;
+
+    // 出現時の形状データ（SRSの回転枠に合わせた正方形）
+    private static final int[][][] SPAWN_SHAPES = {
+            {{0, 0, 0, 0}, {1, 1, 1, 1}, {0, 0, 0, 0}, {0, 0, 0, 0}}, // I型
+            {{2, 2}, {2, 2}},                                         // O型
+            {{0, 3, 0}, {3, 3, 3}, {0, 0, 0}},                        // T型
+            {{0, 4, 4}, {4, 4, 0}, {0, 0, 0}},                        // S型
+            {{5, 5, 0}, {0, 5, 5}, {0, 0, 0}},                        // Z型
+            {{6, 0, 0}, {6, 6, 6}, {0, 0, 0}},                        // J型
+            {{0, 0, 7}, {7, 7, 7}, {0, 0, 0}}                         // L型
+    };
+
+    // SRSの壁蹴りテーブル（x右が正、y上が正）。[回転前の向き*2 + (右回転0/左回転1)][試行番号]
+    private static final int[][][] KICKS_JLSTZ = {
+            {{0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2}}, // 0->R
+            {{0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2}},    // 0->L
+            {{0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2}},     // R->2
+            {{0, 0}, {1, 0}, {1, -1}, {0, 2}, {1, 2}},     // R->0
+            {{0, 0}, {1, 0}, {1, 1}, {0, -2}, {1, -2}},    // 2->L
+            {{0, 0}, {-1, 0}, {-1, 1}, {0, -2}, {-1, -2}}, // 2->R
+            {{0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}},  // L->0
+            {{0, 0}, {-1, 0}, {-1, -1}, {0, 2}, {-1, 2}}   // L->2
+    };
+    private static final int[][][] KICKS_I = {
+            {{0, 0}, {-2, 0}, {1, 0}, {-2, -1}, {1, 2}},   // 0->R
+            {{0, 0}, {-1, 0}, {2, 0}, {-1, 2}, {2, -1}},   // 0->L
+            {{0, 0}, {-1, 0}, {2, 0}, {-1, 2}, {2, -1}},   // R->2
+            {{0, 0}, {2, 0}, {-1, 0}, {2, 1}, {-1, -2}},   // R->0
+            {{0, 0}, {2, 0}, {-1, 0}, {2, 1}, {-1, -2}},   // 2->L
+            {{0, 0}, {1, 0}, {-2, 0}, {1, -2}, {-2, 1}},   // 2->R
+            {{0, 0}, {1, 0}, {-2, 0}, {1, -2}, {-2, 1}},   // L->0
+            {{0, 0}, {-2, 0}, {1, 0}, {-2, -1}, {1, 2}}    // L->2
+    };
+    private static final int[][][] KICKS_NONE = new int[8][1][2];
+
+    // --- クラスロード時に計算するテーブル ---
+    private static final int[][][][] SHAPES = new int[COUNT][4][][]; // [種類][向き][y][x]
+    private static final int[][][] MASKS = new int[COUNT][4][];      // [種類][向き][行] = ビットマスク
+    private static final int[][][] BOTTOMS = new int[COUNT][4][];    // [種類][向き][列] = 一番下のブロックの行（無ければ-1）
+
+    static {
+        for (int type = 0; type < COUNT; type++) {
+            int[][] shape = SPAWN_SHAPES[type];
+            for (int rot = 0; rot < 4; rot++) {
+                SHAPES[type][rot] = shape;
+                MASKS[type][rot] = toRowMasks(shape);
+                BOTTOMS[type][rot] = toBottomProfile(shape);
+                shape = rotateClockwise(shape);
+            }
+        }
+    }
+
+    private Tetromino() {
+    }
+
+    // 指定した向きの形状（共有配列なので書き換えないこと）
+    public static int[][] shape(int type, int rotation) {
+        return SHAPES[type][rotation];
+    }
+
+    // 指定した向きの行ごとのビットマスク（共有配列なので書き換えないこと）
+    public static int[] masks(int type, int rotation) {
+        return MASKS[type][rotation];
+    }
+
+    // 列ごとの一番下のブロックの行（着地位置の計算用、共有配列なので書き換えないこと）
+    public static int[] bottoms(int type, int rotation) {
+        return BOTTOMS[type][rotation];
+    }
+
+    // 回転枠の一辺の長さ
+    public static int boxSize(int type) {
+        return SPAWN_SHAPES[type].length;
+    }
+
+    // 色番号
+    public static int color(int type) {
+        return type + 1;
+    }
+
+    // 回転後の向き
+    public static int rotated(int rotation, boolean clockwise) {
+        return (rotation + (clockwise ? 1 : 3)) & 3;
+    }
+
+    // 壁蹴りの試行回数
+    public static int kickCount(int type) {
+        return kicks(type)[0].length;
+    }
+
+    // 壁蹴りのx方向オフセット
+    public static int kickX(int type, int rotation, boolean clockwise, int index) {
+        return kicks(type)[rotation * 2 + (clockwise ? 0 : 1)][index][0];
+    }
+
+    // 壁蹴りのy方向オフセット（盤面座標なので下が正）
+    public static int kickY(int type, int rotation, boolean clockwise, int index) {
+        return -kicks(type)[rotation * 2 + (clockwise ? 0 : 1)][index][1];
+    }
+
+    private static int[][][] kicks(int type) {
+        switch (type) {
+            case I: return KICKS_I;
+            case O: return KICKS_NONE;
+            default: return KICKS_JLSTZ;
+        }
+    }
+
+    // 行列の入れ替え計算（右回転）
+    private static int[][] rotateClockwise(int[][] shape) {
+        int rows = shape.length;
+        int cols = shape[0].length;
+        int[][] newShape = new int[cols][rows];
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                newShape[x][rows - 1 - y] = shape[y][x];
+            }
+        }
+        return newShape;
+    }
+
+    // 列ごとの一番下のブロックの行を求める
+    private static int[] toBottomProfile(int[][] shape) {
+        int[] bottoms = new int[shape[0].length];
+        for (int x = 0; x < bottoms.length; x++) {
+            bottoms[x] = -1;
+            for (int y = 0; y < shape.length; y++) {
+                if (shape[y][x] > 0) {
+                    bottoms[x] = y;
+                }
+            }
+        }
+        return bottoms;
+    }
+
+    // 形状を行ごとのビットマスクに変換
+    private static int[] toRowMasks(int[][] shape) {
+        int[] masks = new int[shape.length];
+        for (int y = 0; y < shape.length; y++) {
+            for (int x = 0; x < shape[y].length; x++) {
+                if (shape[y][x] > 0) {
+                    masks[y] |= 1 << x;
+                }
+            }
+        }
+        return masks;
+    }
+}
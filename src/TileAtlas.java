@@ -0,0 +1,97 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TileAtlas {
+    // ブロックの色（添字は色番号、0は空）
+    private static final Color[] PALETTE = {
+            Color.BLACK,
+            Color.CYAN,
+            Color.YELLOW,
+            new Color(128, 0, 128),
+            Color.RED,
+            Color.GREEN,
+            Color.BLUE,
+            Color.ORANGE
+    };
+
+    // タイルサイズごとのアトラス（リサイズを何度か往復しても作り直さない程度に保持）
+    private static final int CACHE_SIZE = 4;
+    private static final Map<Integer, TileAtlas> CACHE = new LinkedHashMap<Integer, TileAtlas>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, TileAtlas> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final int tileSize;   // グリッド1マスの大きさ
+    private final int spriteSize; // グリッド線を除いた描画サイズ
+    private final BufferedImage image; // 色番号順にタイルを横に並べた画像
+
+    private TileAtlas(int tileSize) {
+        this.tileSize = tileSize;
+        this.spriteSize = Math.max(1, tileSize - 1);
+        this.image = new BufferedImage(spriteSize * PALETTE.length, spriteSize, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g = image.createGraphics();
+        for (int type = 1; type < PALETTE.length; type++) {
+            renderTile(g, type * spriteSize, PALETTE[type]);
+        }
+        g.dispose();
+    }
+
+    // タイルサイズに対応するアトラスを取得（無ければ作る）
+    public static TileAtlas forSize(int tileSize) {
+        synchronized (CACHE) {
+            TileAtlas atlas = CACHE.get(tileSize);
+            if (atlas == null) {
+                atlas = new TileAtlas(tileSize);
+                CACHE.put(tileSize, atlas);
+            }
+            return atlas;
+        }
+    }
+
+    // ブロックの色
+    public static Color colorOf(int type) {
+        return type >= 0 && type < PALETTE.length ? PALETTE[type] : Color.BLACK;
+    }
+
+    public int getTileSize() { return tileSize; }
+
+    // グリッド左上が(x, y)のマスにタイルを描く（グリッド線の内側に1回のdrawImageで転送）
+    public void draw(Graphics g, int type, int x, int y) {
+        int sx = type * spriteSize;
+        g.drawImage(image,
+                x + 1, y + 1, x + 1 + spriteSize, y + 1 + spriteSize,
+                sx, 0, sx + spriteSize, spriteSize,
+                null);
+    }
+
+    // 面取りと陰影をつけたタイルを1枚描く
+    private void renderTile(Graphics2D g, int x, Color base) {
+        int s = spriteSize;
+        g.setColor(base);
+        g.fillRect(x, 0, s, s);
+        if (s < 6) {
+            return;
+        }
+
+        int bevel = Math.max(1, s / 8);
+        Color light = base.brighter();
+        Color dark = base.darker();
+
+        // 上と左は明るく、下と右は暗く
+        g.setColor(light);
+        g.fillRect(x, 0, s, bevel);
+        g.fillRect(x, 0, bevel, s);
+        g.setColor(dark);
+        g.fillRect(x, s - bevel, s, bevel);
+        g.fillRect(x + s - bevel, 0, bevel, s);
+
+        // 内側の下半分を少し暗くして立体感を出す
+        g.setColor(new Color(0, 0, 0, 40));
+        g.fillRect(x + bevel, s / 2, s - bevel * 2, s - bevel - s / 2);
+    }
+}
@@ -13,7 +13,7 @@ public class TitlePanel extends JPanel {
         this.parentFrame = parentFrame;
         
         setLayout(new BorderLayout());
-        setBackground(new Color(20, 20, 40));
+        UITheme.background(this, UITheme::background);
         
         // タイトル部分
         JPanel titleArea = new JPanel();
@@ -21,14 +21,10 @@ public class TitlePanel extends JPanel {
         titleArea.setOpaque(false);
         titleArea.setBorder(BorderFactory.createEmptyBorder(80, 0, 40, 0));
         
-        JLabel titleLabel = new JLabel("SIMPLE TETRIS");
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 48));
-        titleLabel.setForeground(Color.CYAN);
+        JLabel titleLabel = UITheme.latinText(new JLabel("SIMPLE TETRIS"), Font.BOLD, 48, UITheme::accent);
         titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         
-        JLabel subtitleLabel = new JLabel("テトリスで遊ぼう！");
-        subtitleLabel.setFont(new Font("Yu Gothic", Font.PLAIN, 20));
-        subtitleLabel.setForeground(Color.WHITE);
+        JLabel subtitleLabel = UITheme.text(new JLabel("テトリスで遊ぼう！"), Font.PLAIN, 20, UITheme::text);
         subtitleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         
         titleArea.add(titleLabel);
@@ -43,6 +39,7 @@ public class TitlePanel extends JPanel {
         
         // ボタンを作成
         JButton startButton = createMenuButton("ゲームスタート");
+        JButton rankingButton = createMenuButton("ランキング");
         JButton settingsButton = createMenuButton("設定");
         JButton exitButton = createMenuButton("終了");
         
@@ -50,11 +47,14 @@ public class TitlePanel extends JPanel {
         startButton.addActionListener(e -> {
             parentFrame.startNewGame();
         });
+        rankingButton.addActionListener(e -> cardLayout.show(mainPanel, "leaderboard"));
         settingsButton.addActionListener(e -> cardLayout.show(mainPanel, "settings"));
         exitButton.addActionListener(e -> System.exit(0));
         
         buttonArea.add(startButton);
         buttonArea.add(Box.createRigidArea(new Dimension(0, 15)));
+        buttonArea.add(rankingButton);
+        buttonArea.add(Box.createRigidArea(new Dimension(0, 15)));
         buttonArea.add(settingsButton);
         buttonArea.add(Box.createRigidArea(new Dimension(0, 15)));
         buttonArea.add(exitButton);
@@ -65,19 +65,16 @@ public class TitlePanel extends JPanel {
         infoArea.setLayout(new BoxLayout(infoArea, BoxLayout.Y_AXIS));
         infoArea.setBorder(BorderFactory.createEmptyBorder(0, 0, 30, 0));
         
-        JLabel infoLabel1 = new JLabel("矢印キー: 移動 / Z: 左回転 / X: 右回転");
-        infoLabel1.setFont(new Font("Yu Gothic", Font.PLAIN, 14));
-        infoLabel1.setForeground(new Color(200, 200, 200));
+        JLabel infoLabel1 = UITheme.text(new JLabel("矢印キー: 移動 / Z: 左回転 / X: 右回転 / Space: ハードドロップ"),
+                Font.PLAIN, 14, UITheme::subText);
         infoLabel1.setAlignmentX(Component.CENTER_ALIGNMENT);
         
-        JLabel infoLabel2 = new JLabel("F11: フルスクリーン切り替え / ESC: 一時停止");
-        infoLabel2.setFont(new Font("Yu Gothic", Font.PLAIN, 14));
-        infoLabel2.setForeground(new Color(200, 200, 200));
+        JLabel infoLabel2 = UITheme.text(new JLabel("F11: フルスクリーン切り替え / ESC: 一時停止 / F2: 自動プレイ / F3: 性能表示"),
+                Font.PLAIN, 14, UITheme::subText);
         infoLabel2.setAlignmentX(Component.CENTER_ALIGNMENT);
         
-        JLabel infoLabel3 = new JLabel("ウィンドウサイズはドラッグで自由に変更可能");
-        infoLabel3.setFont(new Font("Yu Gothic", Font.PLAIN, 12));
-        infoLabel3.setForeground(new Color(150, 150, 150));
+        JLabel infoLabel3 = UITheme.text(new JLabel("ウィンドウサイズはドラッグで自由に変更可能"),
+                Font.PLAIN, 12, UITheme::dimText);
         infoLabel3.setAlignmentX(Component.CENTER_ALIGNMENT);
         
         infoArea.add(infoLabel1);
@@ -91,33 +88,13 @@ public class TitlePanel extends JPanel {
         add(infoArea, BorderLayout.SOUTH);
     }
     
-    // メニューボタンを作成するヘルパーメソッド
+    // メニューボタンを作成するヘルパーメソッド（色と枠線はテーマから）
     private JButton createMenuButton(String text) {
         JButton button = new JButton(text);
-        button.setFont(new Font("Yu Gothic", Font.BOLD, 24));
         button.setPreferredSize(new Dimension(300, 60));
         button.setMaximumSize(new Dimension(300, 60));
         button.setAlignmentX(Component.CENTER_ALIGNMENT);
-        
-        // ボタンのスタイル
-        button.setForeground(Color.WHITE);
-        button.setBackground(new Color(50, 50, 100));
-        button.setFocusPainted(false);
         button.setBorderPainted(true);
-        button.setBorder(BorderFactory.createLineBorder(Color.CYAN, 2));
-        
-        // ホバー効果
-        button.addMouseListener(new java.awt.event.MouseAdapter() {
-            public void mouseEntered(java.awt.event.MouseEvent evt) {
-                button.setBackground(new Color(70, 70, 120));
-                button.setBorder(BorderFactory.createLineBorder(Color.YELLOW, 3));
-            }
-            public void mouseExited(java.awt.event.MouseEvent evt) {
-                button.setBackground(new Color(50, 50, 100));
-                button.setBorder(BorderFactory.createLineBorder(Color.CYAN, 2));
-            }
-        });
-        
-        return button;
+        return UITheme.button(button, Font.BOLD, 24, true);
     }
 }
@@ -0,0 +1,222 @@
+import javax.swing.*;
+import javax.swing.border.Border;
+import java.awt.*;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// 画面で使う色・枠線・フォントをまとめたテーマ。
+// 色と枠線はテーマごとに1回だけ作り、フォントは大きさごとにキャッシュして全画面で使い回す。
+// 部品はbindでテーマの当て方を登録しておき、setCurrentでテーマを切り替えると画面を作り直さずに当て直す
+public final class UITheme {
+    // --- テーマ一覧 ---
+    public static final UITheme NAVY = new UITheme("NAVY",
+            new Color(20, 20, 40), new Color(30, 30, 50), new Color(50, 50, 100), new Color(70, 70, 120),
+            Color.CYAN, Color.YELLOW, Color.WHITE, Color.WHITE, new Color(200, 200, 200), new Color(150, 150, 150));
+    public static final UITheme DARK = new UITheme("DARK",
+            new Color(18, 18, 18), new Color(32, 32, 32), new Color(60, 60, 60), new Color(85, 85, 85),
+            new Color(255, 150, 40), new Color(255, 220, 90), Color.WHITE, Color.WHITE,
+            new Color(200, 200, 200), new Color(140, 140, 140));
+    public static final UITheme LIGHT = new UITheme("LIGHT",
+            new Color(232, 236, 244), new Color(248, 249, 252), new Color(70, 110, 200), new Color(95, 135, 225),
+            new Color(30, 80, 190), new Color(220, 110, 0), new Color(25, 25, 35), Color.WHITE,
+            new Color(70, 70, 85), new Color(120, 120, 135));
+
+    private static volatile UITheme current = NAVY;
+
+    // --- フォント（テーマによらず共通、起動中に1回だけ探す） ---
+    private static final String[] UI_FONTS = {
+        "Yu Gothic", "Yu Gothic UI", "Meiryo", "Noto Sans CJK JP", "Noto Sans JP", "IPAexGothic", "IPAGothic",
+        "TakaoGothic", "VL Gothic"
+    };
+    private static final String[] LATIN_FONTS = {"Arial", "Liberation Sans", "DejaVu Sans"};
+    private static final Map<Integer, Font> FONTS = new ConcurrentHashMap<>();
+    private static final String STYLER = "UITheme.styler"; // 部品に登録するテーマの当て方
+
+    // 使えるフォントを最初に使う時に1回だけ探す
+    private static final class Families {
+        static final String UI = resolve(UI_FONTS, Font.DIALOG);
+        static final String LATIN = resolve(LATIN_FONTS, Font.SANS_SERIF);
+
+        // 見つからない名前のFontはDialogになるので、実際のファミリー名で有無を確かめる
+        private static String resolve(String[] candidates, String fallback) {
+            for (String name : candidates) {
+                if (new Font(name, Font.PLAIN, 12).getFamily(Locale.ROOT).equalsIgnoreCase(name)) {
+                    return name;
+                }
+            }
+            return fallback;
+        }
+    }
+
+    private final String name;
+    private final Color background;  // 画面の背景
+    private final Color panel;       // タブの中などの背景
+    private final Color button;
+    private final Color buttonHover;
+    private final Color accent;      // 見出し・枠線
+    private final Color highlight;   // 1位・ホバー中の枠線
+    private final Color text;
+    private final Color buttonText;
+    private final Color subText;
+    private final Color dimText;
+    private final Border buttonBorder;
+    private final Border hoverBorder;
+
+    private UITheme(String name, Color background, Color panel, Color button, Color buttonHover, Color accent,
+                    Color highlight, Color text, Color buttonText, Color subText, Color dimText) {
+        this.name = name;
+        this.background = background;
+        this.panel = panel;
+        this.button = button;
+        this.buttonHover = buttonHover;
+        this.accent = accent;
+        this.highlight = highlight;
+        this.text = text;
+        this.buttonText = buttonText;
+        this.subText = subText;
+        this.dimText = dimText;
+        this.buttonBorder = BorderFactory.createLineBorder(accent, 2);
+        this.hoverBorder = BorderFactory.createLineBorder(highlight, 3);
+    }
+
+    // 名前からテーマを選ぶ（不明ならNAVY）
+    public static UITheme named(String name) {
+        if (DARK.name.equalsIgnoreCase(name)) {
+            return DARK;
+        } else if (LIGHT.name.equalsIgnoreCase(name)) {
+            return LIGHT;
+        }
+        return NAVY;
+    }
+
+    public static UITheme current() {
+        return current;
+    }
+
+    // テーマを切り替えて、登録済みの部品すべてに当て直す（EDTで呼ぶ）
+    public static void setCurrent(UITheme theme) {
+        if (theme == current) {
+            return;
+        }
+        current = theme;
+        for (Window window : Window.getWindows()) {
+            restyle(window);
+            window.repaint();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void restyle(Component component) {
+        if (component instanceof JComponent) {
+            Object styler = ((JComponent) component).getClientProperty(STYLER);
+            if (styler instanceof Consumer) {
+                ((Consumer<UITheme>) styler).accept(current);
+            }
+        }
+        if (component instanceof Container) {
+            for (Component child : ((Container) component).getComponents()) {
+                restyle(child);
+            }
+        }
+    }
+
+    // --- 部品への登録 ---
+
+    // テーマの当て方を登録して、今のテーマで当てる（同じ部品に複数登録すると順に当てる）
+    @SuppressWarnings("unchecked")
+    public static <T extends JComponent> T bind(T component, Consumer<UITheme> styler) {
+        Object registered = component.getClientProperty(STYLER);
+        component.putClientProperty(STYLER, registered instanceof Consumer
+                ? ((Consumer<UITheme>) registered).andThen(styler) : styler);
+        styler.accept(current);
+        return component;
+    }
+
+    // 日本語の文字
+    public static <T extends JComponent> T text(T component, int style, int size, Function<UITheme, Color> color) {
+        Font font = font(style, size);
+        return bind(component, t -> {
+            component.setFont(font);
+            component.setForeground(color.apply(t));
+        });
+    }
+
+    // 英数字の文字（スコアやキー名）
+    public static <T extends JComponent> T latinText(T component, int style, int size,
+                                                     Function<UITheme, Color> color) {
+        Font font = latinFont(style, size);
+        return bind(component, t -> {
+            component.setFont(font);
+            component.setForeground(color.apply(t));
+        });
+    }
+
+    public static <T extends JComponent> T background(T component, Function<UITheme, Color> color) {
+        return bind(component, t -> component.setBackground(color.apply(t)));
+    }
+
+    // ボタン（ホバー時の色と枠線もテーマのものを使い回すので、マウスの出入りで何も作らない）
+    public static JButton button(JButton button, int style, int size, boolean hoverBorder) {
+        Font font = font(style, size);
+        button.setFocusPainted(false);
+        bind(button, t -> {
+            button.setFont(font);
+            button.setForeground(t.buttonText);
+            button.setBackground(t.button);
+            button.setBorder(t.buttonBorder);
+        });
+        button.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseEntered(java.awt.event.MouseEvent evt) {
+                UITheme t = current;
+                button.setBackground(t.buttonHover);
+                if (hoverBorder) {
+                    button.setBorder(t.hoverBorder);
+                }
+            }
+            public void mouseExited(java.awt.event.MouseEvent evt) {
+                UITheme t = current;
+                button.setBackground(t.button);
+                button.setBorder(t.buttonBorder);
+            }
+        });
+        return button;
+    }
+
+    // --- フォント ---
+
+    // 日本語用のフォント（Yu Gothicが無ければ代わりのもの）
+    public static Font font(int style, int size) {
+        return cachedFont(false, style, size);
+    }
+
+    // 英数字用のフォント（Arialが無ければ代わりのもの）
+    public static Font latinFont(int style, int size) {
+        return cachedFont(true, style, size);
+    }
+
+    private static Font cachedFont(boolean latin, int style, int size) {
+        int key = (size << 3) | ((style & 3) << 1) | (latin ? 1 : 0);
+        Font font = FONTS.get(key);
+        if (font == null) {
+            font = new Font(latin ? Families.LATIN : Families.UI, style, size);
+            Font existing = FONTS.putIfAbsent(key, font);
+            if (existing != null) {
+                font = existing;
+            }
+        }
+        return font;
+    }
+
+    // ゲッター
+    public String getName() { return name; }
+    public Color background() { return background; }
+    public Color panel() { return panel; }
+    public Color accent() { return accent; }
+    public Color highlight() { return highlight; }
+    public Color text() { return text; }
+    public Color subText() { return subText; }
+    public Color dimText() { return dimText; }
+}